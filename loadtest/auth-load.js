@@ -0,0 +1,52 @@
+// k6 load test for the auth hot paths: login, validate and /auth/me.
+// Usage: k6 run -e BASE_URL=http://localhost:8081 loadtest/auth-load.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8081';
+const USERNAME = __ENV.USERNAME || 'admin';
+const PASSWORD = __ENV.PASSWORD || 'admin';
+
+export const options = {
+    scenarios: {
+        login: {
+            executor: 'constant-arrival-rate',
+            exec: 'login',
+            rate: Number(__ENV.LOGIN_RATE || 50),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 100,
+            maxVUs: 1000,
+        },
+        validate: {
+            executor: 'constant-arrival-rate',
+            exec: 'validate',
+            rate: Number(__ENV.VALIDATE_RATE || 2000),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ username: USERNAME, password: PASSWORD }), { headers: JSON_HEADERS });
+    return { token: res.json('data.token') };
+}
+
+export function login() {
+    const res = http.post(`${BASE_URL}/auth/login`, JSON.stringify({ username: USERNAME, password: PASSWORD }), { headers: JSON_HEADERS, tags: { endpoint: 'login' } });
+    check(res, { 'login 200': (r) => r.status === 200 });
+}
+
+export function validate(data) {
+    const headers = { Authorization: `Bearer ${data.token}` };
+    const res = http.get(`${BASE_URL}/auth/validate`, { headers, tags: { endpoint: 'validate' } });
+    check(res, { 'validate 200': (r) => r.status === 200 });
+    const me = http.get(`${BASE_URL}/auth/me`, { headers, tags: { endpoint: 'me' } });
+    check(me, { 'me 200': (r) => r.status === 200 });
+}
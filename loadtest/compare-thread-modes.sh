@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+# Runs the same k6 load against the platform-thread (default) and virtual-thread modes
+# and writes one summary per mode to loadtest/results/. Requires a running Postgres
+# (see application.properties), k6 on the PATH and a packaged jar (./mvnw package).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=$(ls target/auth-*.jar | grep -v plain | head -n 1)
+mkdir -p loadtest/results
+
+run_mode() {
+    local mode=$1 profiles=$2
+    # The login scenario hammers one user from one IP; the login rate limiter would reject it
+    java -jar "$JAR" --spring.profiles.active="$profiles" --auth.rate-limit.login.enabled=false > "loadtest/results/$mode-app.log" 2>&1 &
+    local pid=$!
+    until curl -sf http://localhost:8081/actuator/health > /dev/null; do sleep 1; done
+    k6 run --summary-export "loadtest/results/$mode-summary.json" loadtest/auth-load.js | tee "loadtest/results/$mode-k6.txt"
+    kill "$pid" && wait "$pid" || true
+}
+
+run_mode platform default
+run_mode virtual virtual-threads
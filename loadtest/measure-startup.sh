@@ -0,0 +1,36 @@
+#!/usr/bin/env bash
+# Measures time-to-ready (JVM launch until /actuator/health/readiness is UP) for the default
+# jar and for the startup profile on the AOT build with a CDS archive, and appends both to
+# loadtest/results/startup.txt. Requires a running Postgres (see application.properties).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+mkdir -p loadtest/results
+OUT=target/startup
+
+time_to_ready() {
+    local label=$1; shift
+    local start end pid
+    start=$(date +%s%N)
+    "$@" > "loadtest/results/startup-$label.log" 2>&1 &
+    pid=$!
+    until curl -sf http://localhost:8081/actuator/health/readiness > /dev/null; do sleep 0.05; done
+    end=$(date +%s%N)
+    echo "$label: $(( (end - start) / 1000000 )) ms to ready" | tee -a loadtest/results/startup.txt
+    kill "$pid" && wait "$pid" || true
+}
+
+# Baseline: default profile, no AOT, no CDS
+./mvnw -q -DskipTests package
+JAR=$(ls target/auth-*.jar | grep -v plain | head -n 1)
+time_to_ready baseline java -jar "$JAR"
+
+# Optimized: startup profile + AOT-generated context + class data sharing
+./mvnw -q -DskipTests -Paot package
+rm -rf "$OUT" && java -Djarmode=tools -jar "$JAR" extract --destination "$OUT"
+APP="$OUT/$(basename "$JAR")"
+# Training run: refresh the context once and dump every loaded class into the archive
+java -XX:ArchiveClassesAtExit="$OUT/app.jsa" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$APP" --spring.profiles.active=startup > loadtest/results/startup-training.log 2>&1
+time_to_ready optimized java -XX:SharedArchiveFile="$OUT/app.jsa" -Dspring.aot.enabled=true \
+    -jar "$APP" --spring.profiles.active=startup
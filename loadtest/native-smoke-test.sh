@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+# Smoke test for the native executable: starts target/auth-music-service against the local
+# Postgres from application.properties (no Testcontainers) and checks register, login,
+# validate and batch validate end to end. Build it first with ./mvnw -Pnative -DskipTests package.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+BIN=target/auth-music-service
+BASE_URL=http://localhost:8081
+JSON='Content-Type: application/json'
+USERNAME="smoke-$(date +%s)"
+PASSWORD=smoke-password
+mkdir -p loadtest/results
+
+start=$(date +%s%N)
+"$BIN" --spring.profiles.active=startup > loadtest/results/native-smoke-app.log 2>&1 &
+pid=$!
+trap 'kill "$pid" 2> /dev/null || true' EXIT
+until curl -sf "$BASE_URL/actuator/health/readiness" > /dev/null; do
+    kill -0 "$pid" 2> /dev/null || { echo "native image exited, see loadtest/results/native-smoke-app.log"; exit 1; }
+    sleep 0.05
+done
+echo "ready in $(( ($(date +%s%N) - start) / 1000000 )) ms, RSS $(ps -o rss= -p "$pid" | tr -d ' ') KB"
+
+token_of() {
+    sed -E 's/.*"token":"([^"]+)".*/\1/'
+}
+
+curl -sf -H "$JSON" "$BASE_URL/auth/register" \
+    -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\",\"email\":\"$USERNAME@bbg.pe\",\"country\":\"PE\"}" > /dev/null
+echo "register: ok"
+
+TOKEN=$(curl -sf -H "$JSON" "$BASE_URL/auth/login" \
+    -d "{\"username\":\"$USERNAME\",\"password\":\"$PASSWORD\"}" | token_of)
+[ -n "$TOKEN" ] || { echo "login: no token"; exit 1; }
+echo "login: ok"
+
+curl -sf -H "Authorization: Bearer $TOKEN" "$BASE_URL/auth/validate" | grep -q '"status":"SUCCESS"'
+echo "validate: ok"
+
+curl -sf -H "$JSON" -H "Authorization: Bearer $TOKEN" "$BASE_URL/auth/validate/batch" \
+    -d "{\"tokens\":[\"$TOKEN\",\"not-a-token\"]}" | grep -q "\"username\":\"$USERNAME\""
+echo "validate batch: ok"
@@ -0,0 +1,52 @@
+package pe.bbg.music.auth.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+import pe.bbg.music.auth.dto.ApiResponse;
+import pe.bbg.music.auth.dto.AuthResponse;
+import pe.bbg.music.auth.dto.UserResponse;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the login response envelope returned by {@code /auth/login}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseBenchmark {
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<AuthResponse> response;
+
+    @Setup
+    public void setup() {
+        // Same module discovery as the application mapper (java.time support for logDate)
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        response = ApiResponse.success(AuthResponse.builder()
+                .token("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJiZW5jaG1hcmsifQ.signature")
+                .refreshToken("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJiZW5jaG1hcmsifQ.refresh")
+                .user(UserResponse.builder()
+                        .id(UUID.randomUUID())
+                        .username("benchmark")
+                        .email("benchmark@bbg.pe")
+                        .role(UserRoleEnum.USER)
+                        .avatarUrl("https://ui-avatars.com/api/?name=benchmark")
+                        .country("PE")
+                        .subscriptionTier(SubscriptionTierEnum.PREMIUM)
+                        .build())
+                .build(), "Authentication successful");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,70 @@
+package pe.bbg.music.auth.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import pe.bbg.music.auth.config.JwtAuthenticationFilter;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.entity.UserEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.service.JwtService;
+import pe.bbg.music.auth.service.SigningKeyService;
+import pe.bbg.music.auth.service.TokenCacheService;
+import pe.bbg.music.auth.service.TokenRevocationService;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@link JwtAuthenticationFilter} for an authenticated request,
+ * with an in-memory user lookup and a mock filter chain.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorizationHeader;
+
+    @Setup
+    public void setup() {
+        JwtService jwtService = JwtServiceBenchmark.newJwtService(SigningKeyService.HS256);
+        UserPrincipalResponse user = UserPrincipalResponse.from(UserEntity.builder()
+                .id(UUID.randomUUID())
+                .username("benchmark")
+                .password("{noop}benchmark")
+                .role(UserRoleEnum.USER)
+                .subscriptionTier(SubscriptionTierEnum.FREE)
+                .build());
+        UserDetailsService userDetailsService = username -> user;
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TokenCacheService tokenCacheService = new TokenCacheService(jwtService, meterRegistry, 50000, 300000);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(
+                new JdbcTemplate(), event -> {}, meterRegistry, JwtServiceBenchmark.EXPIRATION, 100000);
+        filter = new JwtAuthenticationFilter(jwtService, tokenCacheService, tokenRevocationService, userDetailsService, meterRegistry);
+        authorizationHeader = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/validate");
+        request.addHeader("Authorization", authorizationHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package pe.bbg.music.auth.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.entity.UserEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.service.JwtService;
+import pe.bbg.music.auth.service.SigningKeyService;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-token cost of signing and parsing with the startup-derived key and parser
+ * versus rebuilding the key and parser on every call (the previous behaviour).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    static final long EXPIRATION = 3600000L;
+    static final long REFRESH_EXPIRATION = 604800000L;
+
+    static JwtService newJwtService(String algorithm) {
+        SigningKeyService signingKeyService = new SigningKeyService(
+                algorithm, SECRET, "", "", "", "", "", List.of(), List.of(), "", true);
+        return new JwtService(signingKeyService, new SimpleMeterRegistry(), EXPIRATION, REFRESH_EXPIRATION);
+    }
+
+    private JwtService jwtService;
+    private UserPrincipalResponse user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = newJwtService(SigningKeyService.HS256);
+        user = UserPrincipalResponse.from(UserEntity.builder()
+                .id(UUID.randomUUID())
+                .username("benchmark")
+                .password("{noop}benchmark")
+                .email("benchmark@bbg.pe")
+                .role(UserRoleEnum.USER)
+                .subscriptionTier(SubscriptionTierEnum.FREE)
+                .build());
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateTokenRebuildingKey() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .subject(user.getUsername())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + EXPIRATION))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public boolean validateSingleParse() {
+        return jwtService.isTokenValid(jwtService.parseToken(token), user);
+    }
+
+    @Benchmark
+    public boolean validateExtractThenCheck() {
+        // Previous filter path: extractUsername, then isTokenValid re-parsing for subject and expiry
+        String username = jwtService.extractUsername(token);
+        return username.equals(user.getUsername())
+                && jwtService.extractClaim(token, Claims::getSubject).equals(username)
+                && !jwtService.extractClaim(token, Claims::getExpiration).before(new Date());
+    }
+
+    @Benchmark
+    public String extractUsernameRebuildingParser() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .get(Claims.SUBJECT, String.class);
+    }
+}
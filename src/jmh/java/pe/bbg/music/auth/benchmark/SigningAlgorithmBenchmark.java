@@ -0,0 +1,53 @@
+package pe.bbg.music.auth.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.entity.UserEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.service.JwtService;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify cost per supported signing algorithm (asymmetric keys are generated per run).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"HS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private JwtService jwtService;
+    private UserPrincipalResponse user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = JwtServiceBenchmark.newJwtService(algorithm);
+        user = UserPrincipalResponse.from(UserEntity.builder()
+                .id(UUID.randomUUID())
+                .username("benchmark")
+                .role(UserRoleEnum.USER)
+                .subscriptionTier(SubscriptionTierEnum.FREE)
+                .build());
+        token = jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public TokenClaimsResponse verify() {
+        return jwtService.parseToken(token);
+    }
+}
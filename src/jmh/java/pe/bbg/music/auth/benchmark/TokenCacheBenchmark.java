@@ -0,0 +1,55 @@
+package pe.bbg.music.auth.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.entity.UserEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.service.JwtService;
+import pe.bbg.music.auth.service.SigningKeyService;
+import pe.bbg.music.auth.service.TokenCacheService;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation throughput for a token seen for the first time (full verification)
+ * versus a repeat token served from {@link TokenCacheService}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenCacheBenchmark {
+
+    private JwtService jwtService;
+    private TokenCacheService tokenCacheService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = JwtServiceBenchmark.newJwtService(SigningKeyService.HS256);
+        tokenCacheService = new TokenCacheService(jwtService, new SimpleMeterRegistry(), 50000, 300000);
+        token = jwtService.generateToken(UserPrincipalResponse.from(UserEntity.builder()
+                .id(UUID.randomUUID())
+                .username("benchmark")
+                .role(UserRoleEnum.USER)
+                .subscriptionTier(SubscriptionTierEnum.FREE)
+                .build()));
+        tokenCacheService.verify(token);
+    }
+
+    @Benchmark
+    public TokenClaimsResponse cold() {
+        return jwtService.parseToken(token);
+    }
+
+    @Benchmark
+    public TokenClaimsResponse warm() {
+        return tokenCacheService.verify(token);
+    }
+}
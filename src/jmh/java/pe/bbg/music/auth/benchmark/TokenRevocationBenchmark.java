@@ -0,0 +1,49 @@
+package pe.bbg.music.auth.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+import pe.bbg.music.auth.service.TokenRevocationService;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the revocation check on the common (not revoked) path, with a populated denylist.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRevocationBenchmark {
+
+    private TokenRevocationService tokenRevocationService;
+    private TokenClaimsResponse claims;
+
+    @Setup
+    public void setup() {
+        tokenRevocationService = new TokenRevocationService(
+                new JdbcTemplate(), event -> {}, new SimpleMeterRegistry(), JwtServiceBenchmark.EXPIRATION, 100000);
+        Instant expiresAt = Instant.now().plusSeconds(3600);
+        for (int i = 0; i < 10000; i++) {
+            tokenRevocationService.revokeToken(UUID.randomUUID().toString(), expiresAt);
+            tokenRevocationService.revokeUserTokensIssuedBefore(UUID.randomUUID(), Instant.now());
+        }
+        claims = TokenClaimsResponse.builder()
+                .tokenId(UUID.randomUUID().toString())
+                .subject("benchmark")
+                .userId(UUID.randomUUID())
+                .issuedAt(Instant.now())
+                .expiration(expiresAt)
+                .build();
+    }
+
+    @Benchmark
+    public boolean isRevoked() {
+        return tokenRevocationService.isRevoked(claims);
+    }
+}
@@ -1,35 +1,84 @@
 package pe.bbg.music.auth.config;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
 import pe.bbg.music.auth.repository.UserRepository;
+import pe.bbg.music.auth.service.LoginAttemptService;
+import pe.bbg.music.auth.service.UserCacheService;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Configuration
 @RequiredArgsConstructor
+@Slf4j
 public class ApplicationConfig {
 
+    private static final String BCRYPT_ID = "bcrypt";
+    private static final int MIN_BCRYPT_STRENGTH = 10;
+    private static final int MAX_BCRYPT_STRENGTH = 14;
+
+    private final UserCacheService userCacheService;
+    private final LoginAttemptService loginAttemptService;
     private final UserRepository repository;
+    private final AuditorAware<String> auditorProvider;
+
+    // Fixed BCrypt cost; 0 calibrates it at startup against auth.password.target-hash-time
+    @Value("${auth.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    @Value("${auth.password.target-hash-time:250}")
+    private long targetHashTime;
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return username -> repository.findByUsername(username)
+        // The in-memory lockout is merged in so DaoAuthenticationProvider rejects a locked account before BCrypt runs
+        return username -> userCacheService.findByUsername(username)
+                .map(loginAttemptService::applyLockState)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
+    // Called by DaoAuthenticationProvider after a successful login when the stored hash is outdated
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            if (!(user instanceof UserPrincipalResponse principal)) {
+                return user;
+            }
+            repository.updatePassword(principal.id(), newPassword, LocalDateTime.now(),
+                    auditorProvider.getCurrentAuditor().orElse("SYSTEM"));
+            UserPrincipalResponse upgraded = principal.withPassword(newPassword);
+            userCacheService.put(upgraded);
+            log.info("Password hash upgraded for user {}", upgraded.username());
+            return upgraded;
+        };
+    }
+
     @Bean
     public AuthenticationProvider authenticationProvider() {
         // In Spring Boot 4 / Security 7+, the default constructor has been removed
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService());
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsPasswordService());
         return authProvider;
     }
 
@@ -40,6 +89,64 @@ public class ApplicationConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt;
+        if (bcryptStrength > 0) {
+            // A pinned cost is the same on every pod, so hashes at any other cost (lower or higher) are rehashed on login
+            bcrypt = new CostMatchingBCryptPasswordEncoder(bcryptStrength);
+            log.info("BCrypt cost pinned to {} (auth.password.bcrypt-strength)", bcryptStrength);
+        } else {
+            // Calibrated costs can differ between pods; only upgrading avoids rehashing users back and forth
+            bcrypt = new BCryptPasswordEncoder(calibrateBcryptStrength(targetHashTime));
+        }
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT_ID, bcrypt);
+        encoders.put("pbkdf2@SpringSecurity_v5_8", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        DelegatingPasswordEncoder delegatingEncoder = new DelegatingPasswordEncoder(BCRYPT_ID, encoders);
+        // Legacy hashes were stored without an {id} prefix; they are plain BCrypt
+        delegatingEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegatingEncoder;
+    }
+
+    /**
+     * Reports an upgrade for any stored BCrypt hash whose cost differs from the configured one,
+     * so lowering the cost takes effect on each user's next login, like raising it does.
+     */
+    static class CostMatchingBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+        private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+        private final int strength;
+
+        CostMatchingBCryptPasswordEncoder(int strength) {
+            super(strength);
+            this.strength = strength;
+        }
+
+        // upgradeEncoding itself is final; it handles null and empty hashes before calling this
+        @Override
+        protected boolean upgradeEncodingNonNull(String encodedPassword) {
+            Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+            return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+        }
+    }
+
+    /**
+     * Picks the highest BCrypt cost whose hash time stays within the target on this hardware.
+     * Each cost step doubles the work, so a single measurement at the minimum cost is enough.
+     */
+    private static int calibrateBcryptStrength(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        probe.encode("calibration"); // warm-up
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double elapsedMillis = Math.max((System.nanoTime() - start) / 1_000_000.0, 1.0);
+
+        int extraCost = (int) Math.floor(Math.log(targetMillis / elapsedMillis) / Math.log(2));
+        int strength = Math.clamp(MIN_BCRYPT_STRENGTH + extraCost, MIN_BCRYPT_STRENGTH, MAX_BCRYPT_STRENGTH);
+        log.info("BCrypt cost calibrated to {} ({} ms at cost {}, target {} ms)",
+                strength, Math.round(elapsedMillis), MIN_BCRYPT_STRENGTH, targetMillis);
+        return strength;
     }
 }
@@ -2,7 +2,9 @@ package pe.bbg.music.auth.config;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
@@ -10,23 +12,39 @@ import pe.bbg.music.auth.entity.UserEntity;
 import pe.bbg.music.auth.entity.enums.UserRoleEnum;
 import pe.bbg.music.auth.repository.UserRepository;
 
+/**
+ * Seeds the default admin user. Runs on its own thread once the application is ready, so the
+ * lookup and BCrypt encode are off the startup path (a CommandLineRunner delays readiness).
+ * Idempotent across replicas: the unique username index rejects a concurrent second insert.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class DataInitializer implements CommandLineRunner {
+public class DataInitializer {
+
+    private static final String ADMIN_USERNAME = "admin";
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
-    @Override
-    public void run(String... args) throws Exception {
-        String adminUsername = "admin";
-        
-        if (userRepository.findByUsername(adminUsername).isEmpty()) {
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        Thread.ofPlatform()
+                .name("admin-seed")
+                .daemon(true)
+                .start(this::seedAdmin);
+    }
+
+    private void seedAdmin() {
+        try {
+            if (userRepository.findPrincipalByUsername(ADMIN_USERNAME).isPresent()) {
+                log.info("Admin user already exists.");
+                return;
+            }
             log.info("Admin user not found. Creating default admin user...");
-            
+
             UserEntity admin = UserEntity.builder()
-                    .username(adminUsername)
+                    .username(ADMIN_USERNAME)
                     .password(passwordEncoder.encode("admin")) // Default password
                     .email("admin@bbg.pe")
                     .role(UserRoleEnum.ADMIN)
@@ -34,11 +52,13 @@ public class DataInitializer implements CommandLineRunner {
                     .subscriptionTier(SubscriptionTierEnum.PREMIUM)
                     .avatarUrl("https://ui-avatars.com/api/?name=Admin")
                     .build();
-            
-            userRepository.save(admin);
+
+            userRepository.saveAndFlush(admin);
             log.info("Default admin user created successfully.");
-        } else {
-            log.info("Admin user already exists.");
+        } catch (DataIntegrityViolationException e) {
+            log.info("Admin user was created concurrently by another instance.");
+        } catch (RuntimeException e) {
+            log.error("Default admin user could not be created", e);
         }
     }
 }
@@ -0,0 +1,47 @@
+package pe.bbg.music.auth.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Counts every controller call as {@code auth.endpoint.requests}, tagged by route pattern and a
+ * business outcome. {@code GlobalExceptionHandler} sets the outcome (bad_credentials, expired_token,
+ * rate_limited, ...) in {@link #OUTCOME_ATTRIBUTE}; otherwise it is derived from the status code.
+ */
+@Component
+@RequiredArgsConstructor
+public class EndpointMetricsInterceptor implements HandlerInterceptor {
+
+    public static final String OUTCOME_ATTRIBUTE = EndpointMetricsInterceptor.class.getName() + ".outcome";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void afterCompletion(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler,
+            Exception ex
+    ) {
+        // The route pattern (not the raw URI) keeps tag cardinality bounded, e.g. /auth/{userId}/role
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            return;
+        }
+        Object outcome = request.getAttribute(OUTCOME_ATTRIBUTE);
+        Counter.builder("auth.endpoint.requests")
+                .description("Controller calls by endpoint and outcome")
+                .tag("endpoint", pattern.toString())
+                .tag("method", request.getMethod())
+                .tag("outcome", outcome != null ? outcome.toString() : response.getStatus() < 400 ? "success" : "error")
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -1,28 +1,82 @@
 package pe.bbg.music.auth.config;
 
+import io.jsonwebtoken.ExpiredJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
 import pe.bbg.music.auth.service.JwtService;
+import pe.bbg.music.auth.service.TokenCacheService;
+import pe.bbg.music.auth.service.TokenRevocationService;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String AUTHENTICATED = "authenticated";
+    private static final String UNAUTHENTICATED = "unauthenticated";
+    private static final String REVOKED = "revoked";
+    private static final String EXPIRED = "expired";
+    private static final String INVALID = "invalid";
+
     private final JwtService jwtService;
+    private final TokenCacheService tokenCacheService;
+    private final TokenRevocationService tokenRevocationService;
     private final UserDetailsService userDetailsService;
+    // Time spent resolving the bearer token into an Authentication, excluding the rest of the chain
+    private final Map<String, Timer> timers;
+
+    // Build the Authentication from verified claims alone, without loading the user
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean statelessEnabled;
+
+    // Tokens issued longer ago than this still go through a user lookup
+    @Value("${jwt.stateless.max-token-age:300000}")
+    private long statelessMaxTokenAge;
+
+    // Sensitive endpoints that always resolve the user from the database
+    @Value("${jwt.stateless.lookup-paths:/auth/change-password}")
+    private Set<String> statelessLookupPaths;
+
+    public JwtAuthenticationFilter(
+            JwtService jwtService,
+            TokenCacheService tokenCacheService,
+            TokenRevocationService tokenRevocationService,
+            UserDetailsService userDetailsService,
+            MeterRegistry meterRegistry
+    ) {
+        this.jwtService = jwtService;
+        this.tokenCacheService = tokenCacheService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userDetailsService = userDetailsService;
+        this.timers = Stream.of(AUTHENTICATED, UNAUTHENTICATED, REVOKED, EXPIRED, INVALID)
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), outcome -> Timer.builder("auth.filter.time")
+                        .description("Bearer token authentication time in JwtAuthenticationFilter")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)));
+    }
 
     @Override
     protected void doFilterInternal(
@@ -31,28 +85,70 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
         if (authHeader == null ||!authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
-        jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+        long start = System.nanoTime();
+        String outcome = INVALID;
+        try {
+            outcome = authenticateToken(request, authHeader.substring(7));
+        } catch (ExpiredJwtException e) {
+            outcome = EXPIRED;
+            throw e;
+        } finally {
+            timers.get(outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String authenticateToken(HttpServletRequest request, String jwt) {
+        final TokenClaimsResponse claims = tokenCacheService.verify(jwt);
+        if (!claims.isAccessToken()) {
+            // Refresh tokens are only exchanged at /auth/refresh-token, where RefreshTokenService checks them
+            return INVALID;
+        }
+        if (tokenRevocationService.isRevoked(claims)) {
+            // Left unauthenticated: protected routes answer 401 through the entry point
+            return REVOKED;
+        }
+        if (claims.getSubject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (canAuthenticateStatelessly(claims, request)) {
+                authenticate(request, new UsernamePasswordAuthenticationToken(
+                        claims,
+                        null,
+                        List.of(new SimpleGrantedAuthority(claims.getRole().name()))
+                ));
+                return AUTHENTICATED;
+            }
+            UserDetails userDetails = this.userDetailsService.loadUserByUsername(claims.getSubject());
+            if (jwtService.isTokenValid(claims, userDetails)) {
+                authenticate(request, new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
                         userDetails.getAuthorities()
-                );
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                ));
+                return AUTHENTICATED;
             }
         }
-        filterChain.doFilter(request, response);
+        return UNAUTHENTICATED;
+    }
+
+    private boolean canAuthenticateStatelessly(TokenClaimsResponse claims, HttpServletRequest request) {
+        if (!statelessEnabled || !claims.hasIdentityClaims() || claims.isExpired()) {
+            return false;
+        }
+        if (statelessLookupPaths.contains(request.getServletPath())) {
+            return false;
+        }
+        return claims.getIssuedAt() != null
+                && claims.getIssuedAt().plusMillis(statelessMaxTokenAge).isAfter(Instant.now());
+    }
+
+    private void authenticate(HttpServletRequest request, UsernamePasswordAuthenticationToken authToken) {
+        authToken.setDetails(
+                new WebAuthenticationDetailsSource().buildDetails(request)
+        );
+        SecurityContextHolder.getContext().setAuthentication(authToken);
     }
 }
@@ -0,0 +1,86 @@
+package pe.bbg.music.auth.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import pe.bbg.music.auth.dto.*;
+import pe.bbg.music.auth.entity.RefreshTokenEntity;
+import pe.bbg.music.auth.entity.UserEntity;
+import pe.bbg.music.auth.entity.UserImportEntity;
+
+import java.util.List;
+
+/**
+ * Reflection and resource hints for the native image (./mvnw -Pnative -DskipTests package).
+ * Spring AOT already covers beans, Spring Security and controller signatures; these are the
+ * lookups it cannot see.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.AuthRuntimeHints.class)
+public class NativeHintsConfig {
+
+    static class AuthRuntimeHints implements RuntimeHintsRegistrar {
+
+        // jjwt-impl is runtime-only: Jwts, Jwks and Keys instantiate these by class name
+        private static final List<String> JJWT_IMPL_TYPES = List.of(
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+                "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardKeyOperations",
+                "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+                "io.jsonwebtoken.impl.security.StandardCurves",
+                "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+                "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+                "io.jsonwebtoken.impl.security.KeysBridge",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+        );
+
+        private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            JJWT_IMPL_TYPES.forEach(type -> hints.reflection().registerType(
+                    TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS));
+            // jjwt-jackson is discovered through ServiceLoader
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Serializer");
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.Deserializer");
+
+            // Field-access entities; their Lombok builders are plain compiled code and need no hints
+            for (Class<?> entity : List.of(UserEntity.class, RefreshTokenEntity.class, UserImportEntity.class)) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.ACCESS_DECLARED_FIELDS);
+            }
+            // JPQL "select new ..." projections are instantiated reflectively by Hibernate
+            hints.reflection().registerType(UserPrincipalResponse.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            hints.reflection().registerType(UserResponse.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+
+            // ApiResponse<T> payloads are erased in controller signatures, and the bulk/import
+            // request types are read through ObjectMapper directly rather than @RequestBody
+            bindingRegistrar.registerReflectionHints(hints.reflection(),
+                    ApiResponse.class,
+                    AuthResponse.class,
+                    UserResponse.class,
+                    TokenValidationResponse.class,
+                    KeyRotationResponse.class,
+                    BulkUserChangeRequest.class,
+                    BulkUserChangeResponse.class,
+                    BulkItemResultResponse.class,
+                    UserImportRequest.class,
+                    UserImportResponse.class);
+        }
+    }
+}
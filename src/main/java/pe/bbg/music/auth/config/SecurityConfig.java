@@ -5,6 +5,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -34,7 +35,14 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/register", "/auth/login", "/auth/refresh").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        // Probes stay public; metrics and prometheus expose login outcomes and JVM internals
+                        .requestMatchers("/actuator/health/**", "/actuator/info").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("ADMIN")
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/auth/keys/**").hasAuthority("ADMIN")
+                        .requestMatchers("/auth/users/**").hasAuthority("ADMIN")
+                        // Otherwise any user could grant themselves ADMIN or a paid tier
+                        .requestMatchers(HttpMethod.PUT, "/auth/*/role", "/auth/*/subscription-tier").hasAuthority("ADMIN")
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .anyRequest().authenticated()
                 )
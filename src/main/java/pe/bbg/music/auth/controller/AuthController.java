@@ -2,12 +2,20 @@ package pe.bbg.music.auth.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import pe.bbg.music.auth.dto.*;
 import pe.bbg.music.auth.service.AuthService;
+import pe.bbg.music.auth.service.UserBulkService;
+import pe.bbg.music.auth.service.UserImportService;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -21,6 +29,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 public class AuthController {
 
     private final AuthService service;
+    private final UserBulkService userBulkService;
+    private final UserImportService userImportService;
 
     @Operation(summary = "Register a new user", description = "Creates a new user account with the provided details.")
     @PostMapping("/register")
@@ -36,9 +46,10 @@ public class AuthController {
     @Operation(summary = "Authenticate user", description = "Validates credentials and returns a JWT token.")
     @PostMapping("/login")
     public ResponseEntity<ApiResponse<AuthResponse>> authenticate(
-            @RequestBody AuthRequest request
+            @RequestBody AuthRequest request,
+            HttpServletRequest httpRequest
     ) {
-        AuthResponse response = service.authenticate(request);
+        AuthResponse response = service.authenticate(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(
                 ApiResponse.success(response, "Authentication successful")
         );
@@ -55,6 +66,18 @@ public class AuthController {
         );
     }
 
+    @Operation(summary = "Logout", description = "Revokes the current access token and, if provided, the refresh token session.")
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+            @RequestBody(required = false) RefreshTokenRequest request
+    ) {
+        service.logout(authorization.substring(7), request);
+        return ResponseEntity.ok(
+                ApiResponse.success(null, "Logout successful")
+        );
+    }
+
     @Operation(summary = "Validate token", description = "Checks if the provided JWT token is valid and not expired.")
     @GetMapping("/validate")
     public ResponseEntity<ApiResponse<String>> validateToken() {
@@ -63,6 +86,16 @@ public class AuthController {
         );
     }
 
+    @Operation(summary = "Validate tokens in batch", description = "Validates several JWT access tokens in one call and returns validity and user claims for each one. Refresh tokens are reported as invalid.")
+    @PostMapping("/validate/batch")
+    public ResponseEntity<ApiResponse<List<TokenValidationResponse>>> validateTokens(
+            @RequestBody BatchValidateRequest request
+    ) {
+        return ResponseEntity.ok(
+                ApiResponse.success(service.validateTokens(request), "Tokens validated successfully")
+        );
+    }
+
     @Operation(summary = "Get current user info", description = "Retrieves details of the currently authenticated user.")
     @GetMapping("/me")
     public ResponseEntity<ApiResponse<UserResponse>> getCurrentUser() {
@@ -106,4 +139,34 @@ public class AuthController {
                 ApiResponse.success(service.changeSubscriptionTier(userId, request), "User subscription tier updated successfully")
         );
     }
+
+    // Body is read as a stream, never fully buffered: a JSON array or NDJSON, one change per item
+    @Operation(summary = "Bulk change roles and subscription tiers", description = "Applies role and/or subscription tier changes for many users in JDBC batches and returns a result per item (Admin only).")
+    @PostMapping(value = "/users/bulk-change", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ApiResponse<BulkUserChangeResponse>> bulkChange(InputStream body) throws IOException {
+        return ResponseEntity.ok(
+                ApiResponse.success(userBulkService.applyChanges(body), "Bulk change processed")
+        );
+    }
+
+    @Operation(summary = "Bulk import users", description = "Streams users from NDJSON or CSV (header row) with plaintext or pre-hashed passwords. Pass importId to resume a failed import with the same input (Admin only).")
+    @PostMapping(value = "/users/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ResponseEntity<ApiResponse<UserImportResponse>> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestParam(required = false) UUID importId,
+            InputStream body
+    ) throws IOException {
+        boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+        return ResponseEntity.ok(
+                ApiResponse.success(userImportService.importUsers(body, csv, importId), "User import processed")
+        );
+    }
+
+    @Operation(summary = "Bulk import progress", description = "Returns the committed progress of a bulk user import (Admin only).")
+    @GetMapping("/users/import/{importId}")
+    public ResponseEntity<ApiResponse<UserImportResponse>> getImportProgress(@PathVariable UUID importId) {
+        return ResponseEntity.ok(
+                ApiResponse.success(userImportService.getProgress(importId), "User import progress retrieved successfully")
+        );
+    }
 }
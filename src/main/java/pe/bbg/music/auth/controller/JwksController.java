@@ -0,0 +1,59 @@
+package pe.bbg.music.auth.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import pe.bbg.music.auth.dto.ApiResponse;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.KeyRotationResponse;
+import pe.bbg.music.auth.dto.SigningKeyResponse;
+import pe.bbg.music.auth.service.InvalidationBusService;
+import pe.bbg.music.auth.service.SigningKeyService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Keys", description = "Token signing keys: public JWKS and rotation")
+public class JwksController {
+
+    private final SigningKeyService signingKeyService;
+    private final InvalidationBusService invalidationBusService;
+
+    @Value("${jwt.jwks.max-age:900}")
+    private long jwksMaxAge;
+
+    // Served as a plain RFC 7517 JWK Set (not wrapped in ApiResponse) so standard JWT libraries can consume it
+    @Operation(summary = "JSON Web Key Set", description = "Public keys used to verify access tokens, selected by the token 'kid' header.")
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> getJwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(jwksMaxAge)).cachePublic())
+                .body(Map.of("keys", signingKeyService.getPublicJwks()));
+    }
+
+    @Operation(summary = "Rotate signing key", description = "Promotes the staged signing key; the previous key keeps verifying existing tokens (Admin only).")
+    @PostMapping("/auth/keys/rotate")
+    public ResponseEntity<ApiResponse<KeyRotationResponse>> rotateSigningKey() {
+        String previousKid = signingKeyService.getActiveKey().getKid();
+        SigningKeyResponse activeKey = signingKeyService.rotate();
+        // Peers holding the same staged key promote it too
+        invalidationBusService.publish(InvalidationEventRequest.signingKeyRotated(activeKey.getKid()));
+        KeyRotationResponse response = KeyRotationResponse.builder()
+                .previousKid(previousKid)
+                .activeKid(activeKey.getKid())
+                .algorithm(activeKey.getAlgorithm())
+                .build();
+        return ResponseEntity.ok(
+                ApiResponse.success(response, "Signing key rotated successfully")
+        );
+    }
+}
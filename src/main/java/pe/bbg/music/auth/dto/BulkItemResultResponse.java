@@ -0,0 +1,22 @@
+package pe.bbg.music.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.bbg.music.auth.dto.enums.BulkItemStatusEnum;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResultResponse {
+    private int index;
+    private UUID userId;
+    private BulkItemStatusEnum status;
+    private String reason;
+}
@@ -0,0 +1,21 @@
+package pe.bbg.music.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+
+import java.util.UUID;
+
+// One item of a bulk change stream; at least one of newRole/newTier must be set
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserChangeRequest {
+    private UUID userId;
+    private UserRoleEnum newRole;
+    private SubscriptionTierEnum newTier;
+}
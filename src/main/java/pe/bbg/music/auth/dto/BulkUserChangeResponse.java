@@ -0,0 +1,20 @@
+package pe.bbg.music.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserChangeResponse {
+    private int total;
+    private int updated;
+    private int notFound;
+    private int invalid;
+    private List<BulkItemResultResponse> results;
+}
@@ -0,0 +1,66 @@
+package pe.bbg.music.auth.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import pe.bbg.music.auth.dto.enums.InvalidationTypeEnum;
+import pe.bbg.music.auth.service.InvalidationBusService;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A change that in-process caches on every instance must apply. Delivered locally as a Spring
+ * application event and to peers through {@link InvalidationBusService}.
+ * <ul>
+ *     <li>{@code USER_CHANGED}: keys are user ids.</li>
+ *     <li>{@code TOKEN_REVOKED}: keys are token ids, {@code at} is their expiry.</li>
+ *     <li>{@code USER_TOKENS_REVOKED}: keys are user ids, {@code at} is the revocation cutoff.</li>
+ *     <li>{@code SIGNING_KEY_ROTATED}: the single key is the new active kid.</li>
+ *     <li>{@code RESYNC}: local only, no keys. Published when the bus may have missed events, so
+ *     listeners reload from their source of truth.</li>
+ * </ul>
+ * Events with the same type and {@code at} can be merged into one.
+ */
+@Value
+@Builder(toBuilder = true)
+public class InvalidationEventRequest {
+
+    InvalidationTypeEnum type;
+    List<String> keys;
+    // Epoch millis; 0 when the type carries no timestamp
+    long at;
+    // Instance that published the event, so it is not applied twice
+    String origin;
+
+    public static InvalidationEventRequest userChanged(Collection<UUID> userIds) {
+        return of(InvalidationTypeEnum.USER_CHANGED, userIds.stream().map(UUID::toString).toList(), 0);
+    }
+
+    public static InvalidationEventRequest tokenRevoked(String tokenId, Instant expiresAt) {
+        return of(InvalidationTypeEnum.TOKEN_REVOKED, List.of(tokenId), expiresAt.toEpochMilli());
+    }
+
+    // Millisecond cutoff, compared with the iat_ms claim so tokens issued right after the change stay valid
+    public static InvalidationEventRequest userTokensRevoked(Collection<UUID> userIds, Instant cutoff) {
+        return of(InvalidationTypeEnum.USER_TOKENS_REVOKED, userIds.stream().map(UUID::toString).toList(),
+                cutoff.toEpochMilli());
+    }
+
+    public static InvalidationEventRequest signingKeyRotated(String kid) {
+        return of(InvalidationTypeEnum.SIGNING_KEY_ROTATED, List.of(kid), 0);
+    }
+
+    public static InvalidationEventRequest resync() {
+        return of(InvalidationTypeEnum.RESYNC, List.of(), 0);
+    }
+
+    private static InvalidationEventRequest of(InvalidationTypeEnum type, List<String> keys, long at) {
+        return InvalidationEventRequest.builder()
+                .type(type)
+                .keys(keys)
+                .at(at)
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package pe.bbg.music.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeyRotationResponse {
+    private String previousKid;
+    private String activeKid;
+    private String algorithm;
+}
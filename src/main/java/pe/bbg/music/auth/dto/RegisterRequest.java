@@ -4,8 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import pe.bbg.music.auth.entity.enums.UserRoleEnum;
 
+// No role: self-registered accounts are always USER; only an ADMIN can change roles, through PUT /auth/{userId}/role
 @Data
 @Builder
 @AllArgsConstructor
@@ -15,6 +15,5 @@ public class RegisterRequest {
     private String username;
     private String password;
     private String email;
-    private UserRoleEnum role; 
     private String country;
 }
@@ -0,0 +1,22 @@
+package pe.bbg.music.auth.dto;
+
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.Builder;
+import lombok.Value;
+
+import java.security.Key;
+
+/**
+ * A token signing key identified by its {@code kid} (the JWK thumbprint).
+ * {@code publicJwk} is only present for asymmetric keys and is safe to publish.
+ */
+@Value
+@Builder
+public class SigningKeyResponse {
+
+    String kid;
+    String algorithm;
+    Key signingKey;
+    Key verificationKey;
+    PublicJwk<?> publicJwk;
+}
@@ -0,0 +1,52 @@
+package pe.bbg.music.auth.dto;
+
+import lombok.Builder;
+import lombok.Value;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import pe.bbg.music.auth.dto.enums.TokenTypeEnum;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Immutable view of a token whose signature has already been verified, so callers can
+ * read every claim they need without parsing the same token again.
+ */
+@Value
+@Builder
+public class TokenClaimsResponse implements AuthenticatedPrincipal {
+
+    String tokenId;
+    TokenTypeEnum tokenType;
+    String subject;
+    UUID userId;
+    UserRoleEnum role;
+    SubscriptionTierEnum subscriptionTier;
+    Instant issuedAt;
+    Instant expiration;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+
+    // Tokens issued before the typ claim existed: only access tokens carried a uid
+    public boolean isAccessToken() {
+        return tokenType != null ? tokenType == TokenTypeEnum.ACCESS : userId != null;
+    }
+
+    public boolean isRefreshToken() {
+        return tokenType != null ? tokenType == TokenTypeEnum.REFRESH : userId == null;
+    }
+
+    // True when the token carries everything needed to authenticate without loading the user
+    public boolean hasIdentityClaims() {
+        return subject != null && userId != null && role != null && subscriptionTier != null;
+    }
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+}
@@ -0,0 +1,28 @@
+package pe.bbg.music.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenValidationResponse {
+    private int index;
+    private boolean valid;
+    private String reason;
+    private UUID userId;
+    private String username;
+    private UserRoleEnum role;
+    private SubscriptionTierEnum subscriptionTier;
+    private Instant expiresAt;
+}
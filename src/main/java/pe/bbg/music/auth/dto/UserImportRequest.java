@@ -0,0 +1,26 @@
+package pe.bbg.music.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+
+// One record of a bulk import (NDJSON object or CSV row with these column names)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportRequest {
+    private String username;
+    private String email;
+    // Plaintext, hashed during the import
+    private String password;
+    // Already hashed: {bcrypt}..., bare $2a$/$2b$/$2y$ BCrypt, or {pbkdf2@SpringSecurity_v5_8}...
+    private String passwordHash;
+    private UserRoleEnum role;
+    private String country;
+    private SubscriptionTierEnum subscriptionTier;
+    private String avatarUrl;
+}
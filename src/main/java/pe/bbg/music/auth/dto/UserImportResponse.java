@@ -0,0 +1,28 @@
+package pe.bbg.music.auth.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import pe.bbg.music.auth.entity.enums.UserImportStatusEnum;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResponse {
+    private UUID importId;
+    private UserImportStatusEnum status;
+    private long processed;
+    private long imported;
+    private long skipped;
+    private long failed;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,90 @@
+package pe.bbg.music.auth.dto;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import pe.bbg.music.auth.entity.UserEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read-only authentication principal selected straight into a record by {@code UserRepository},
+ * so the filter and login path never materialize a managed {@link UserEntity} (no audit columns,
+ * no persistence-context snapshot, no dirty checking). This is also what {@code UserCacheService} holds.
+ */
+public record UserPrincipalResponse(
+        UUID id,
+        String username,
+        String password,
+        String email,
+        UserRoleEnum role,
+        String avatarUrl,
+        String country,
+        SubscriptionTierEnum subscriptionTier,
+        int failedAttempts,
+        LocalDateTime lockedUntil
+) implements UserDetails {
+
+    // Select list shared by the repository queries; must follow the component order above
+    public static final String SELECT = "select new pe.bbg.music.auth.dto.UserPrincipalResponse("
+            + "u.id, u.username, u.password, u.email, u.role, u.avatarUrl, u.country, u.subscriptionTier, "
+            + "u.failedAttempts, u.lockedUntil) "
+            + "from UserEntity u ";
+
+    public static UserPrincipalResponse from(UserEntity user) {
+        return new UserPrincipalResponse(
+                user.getId(),
+                user.getUsername(),
+                user.getPassword(),
+                user.getEmail(),
+                user.getRole(),
+                user.getAvatarUrl(),
+                user.getCountry(),
+                user.getSubscriptionTier(),
+                user.getFailedAttempts(),
+                user.getLockedUntil()
+        );
+    }
+
+    public UserPrincipalResponse withPassword(String newPassword) {
+        return new UserPrincipalResponse(id, username, newPassword, email, role, avatarUrl, country, subscriptionTier,
+                failedAttempts, lockedUntil);
+    }
+
+    public UserPrincipalResponse withLockedUntil(LocalDateTime newLockedUntil) {
+        return new UserPrincipalResponse(id, username, password, email, role, avatarUrl, country, subscriptionTier,
+                failedAttempts, newLockedUntil);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    // Checked by DaoAuthenticationProvider before the password compare
+    @Override
+    public boolean isAccountNonLocked() {
+        return lockedUntil == null || lockedUntil.isBefore(LocalDateTime.now());
+    }
+
+    // Keeps the password hash out of logs
+    @Override
+    public String toString() {
+        return "UserPrincipalResponse[id=" + id + ", username=" + username + ", role=" + role + "]";
+    }
+}
@@ -0,0 +1,7 @@
+package pe.bbg.music.auth.dto.enums;
+
+public enum BulkItemStatusEnum {
+    UPDATED,
+    NOT_FOUND,
+    INVALID
+}
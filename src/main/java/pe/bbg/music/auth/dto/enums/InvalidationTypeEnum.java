@@ -0,0 +1,9 @@
+package pe.bbg.music.auth.dto.enums;
+
+public enum InvalidationTypeEnum {
+    USER_CHANGED,
+    TOKEN_REVOKED,
+    USER_TOKENS_REVOKED,
+    SIGNING_KEY_ROTATED,
+    RESYNC
+}
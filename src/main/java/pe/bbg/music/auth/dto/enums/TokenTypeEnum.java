@@ -0,0 +1,6 @@
+package pe.bbg.music.auth.dto.enums;
+
+public enum TokenTypeEnum {
+    ACCESS,
+    REFRESH
+}
@@ -27,6 +27,7 @@ import java.util.UUID;
 @AllArgsConstructor
 @Entity
 @EntityListeners(AuditingEntityListener.class)
+// Case-insensitive unique indexes on username and email are functional (lower(...)) and live in db/migration
 @Table(name = "tbl_user")
 public class UserEntity implements UserDetails {
 
@@ -34,6 +35,7 @@ public class UserEntity implements UserDetails {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
+    @Column(nullable = false)
     private String username;
     private String password;
     private String email;
@@ -48,6 +50,11 @@ public class UserEntity implements UserDetails {
     @Enumerated(EnumType.STRING)
     private SubscriptionTierEnum subscriptionTier;
 
+    // Lockout state, written in batches by LoginAttemptService
+    @Column(nullable = false)
+    private int failedAttempts;
+    private LocalDateTime lockedUntil;
+
     // Audit fields
     @CreatedBy
     @Column(updatable = false)
@@ -85,7 +92,7 @@ public class UserEntity implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return lockedUntil == null || lockedUntil.isBefore(LocalDateTime.now());
     }
 
     @Override
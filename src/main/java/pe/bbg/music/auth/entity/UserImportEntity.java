@@ -0,0 +1,66 @@
+package pe.bbg.music.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedBy;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedBy;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import pe.bbg.music.auth.entity.enums.UserImportStatusEnum;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@EntityListeners(AuditingEntityListener.class)
+@Table(name = "tbl_user_import")
+public class UserImportEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UserImportStatusEnum status;
+
+    // Input records consumed and committed; a resumed import skips this many records first
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(nullable = false)
+    private long imported;
+
+    // Username or email already present (ON CONFLICT DO NOTHING)
+    @Column(nullable = false)
+    private long skipped;
+
+    @Column(nullable = false)
+    private long failed;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    // Audit fields
+    @CreatedBy
+    @Column(updatable = false)
+    private String createdBy;
+
+    @CreatedDate
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedBy
+    private String updatedBy;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+}
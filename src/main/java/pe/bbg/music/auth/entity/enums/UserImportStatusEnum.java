@@ -0,0 +1,7 @@
+package pe.bbg.music.auth.entity.enums;
+
+public enum UserImportStatusEnum {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -1,19 +1,29 @@
 package pe.bbg.music.auth.exception;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import pe.bbg.music.auth.config.EndpointMetricsInterceptor;
 import pe.bbg.music.auth.dto.ApiResponse;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final String USERNAME_UNIQUE_CONSTRAINT = "ux_user_username_lower";
+    private static final String EMAIL_UNIQUE_CONSTRAINT = "ux_user_email_lower";
+
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<ApiResponse<Object>> handleBadCredentials(BadCredentialsException ex) {
+    public ResponseEntity<ApiResponse<Object>> handleBadCredentials(BadCredentialsException ex, HttpServletRequest request) {
+        recordOutcome(request, "bad_credentials");
         String currentUser = getCurrentUsername();
         ApiResponse<Object> response = ApiResponse.error(
                 "Invalid credentials. Please verify your username and password.",
@@ -23,8 +33,21 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(LockedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleLocked(LockedException ex, HttpServletRequest request) {
+        recordOutcome(request, "locked");
+        String currentUser = getCurrentUsername();
+        ApiResponse<Object> response = ApiResponse.error(
+                "Account temporarily locked after repeated failed logins. Please try again later.",
+                ex.getMessage(),
+                currentUser
+        );
+        return new ResponseEntity<>(response, HttpStatus.LOCKED);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<ApiResponse<Object>> handleIllegalArgument(IllegalArgumentException ex) {
+    public ResponseEntity<ApiResponse<Object>> handleIllegalArgument(IllegalArgumentException ex, HttpServletRequest request) {
+        recordOutcome(request, "invalid_request");
         String currentUser = getCurrentUsername();
         ApiResponse<Object> response = ApiResponse.error(
                 ex.getMessage(),
@@ -34,17 +57,61 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
-    @ExceptionHandler({
-            io.jsonwebtoken.security.SignatureException.class,
-            io.jsonwebtoken.ExpiredJwtException.class,
-            io.jsonwebtoken.MalformedJwtException.class
-    })
-    public ResponseEntity<ApiResponse<Object>> handleJwtExceptions(Exception ex) {
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ApiResponse<Object>> handleDataIntegrityViolation(DataIntegrityViolationException ex, HttpServletRequest request) {
+        String userMessage = duplicateUserMessage(ex);
+        if (userMessage == null) {
+            // Not-null, foreign key and any other integrity failure is a server-side bug, not a conflict
+            return handleGeneralException(ex, request);
+        }
+        recordOutcome(request, "conflict");
+        String currentUser = getCurrentUsername();
+        ApiResponse<Object> response = ApiResponse.error(
+                userMessage,
+                ex.getMostSpecificCause().getMessage(),
+                currentUser
+        );
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ApiResponse<Object>> handleServiceUnavailable(ServiceUnavailableException ex, HttpServletRequest request) {
+        recordOutcome(request, "shed");
+        String currentUser = getCurrentUsername();
+        ApiResponse<Object> response = ApiResponse.error(
+                ex.getMessage(),
+                "Request shed: resource saturated",
+                currentUser
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ApiResponse<Object>> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest request) {
+        recordOutcome(request, "rate_limited");
+        String currentUser = getCurrentUsername();
+        ApiResponse<Object> response = ApiResponse.error(
+                ex.getMessage(),
+                "Request rejected: rate limit exceeded",
+                currentUser
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    // Every JJWT failure, including an unknown or retired kid (UnsupportedJwtException, no key located)
+    @ExceptionHandler(io.jsonwebtoken.JwtException.class)
+    public ResponseEntity<ApiResponse<Object>> handleJwtExceptions(Exception ex, HttpServletRequest request) {
         String currentUser = getCurrentUsername();
         String userMessage = "Invalid or expired token. Please login again.";
+        recordOutcome(request, "invalid_token");
         
         if (ex instanceof io.jsonwebtoken.ExpiredJwtException) {
             userMessage = "The token has expired. Please refresh it or login again.";
+            recordOutcome(request, "expired_token");
         }
 
         ApiResponse<Object> response = ApiResponse.error(
@@ -56,7 +123,8 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(org.springframework.http.converter.HttpMessageNotReadableException.class)
-    public ResponseEntity<ApiResponse<Object>> handleHttpMessageNotReadable(org.springframework.http.converter.HttpMessageNotReadableException ex) {
+    public ResponseEntity<ApiResponse<Object>> handleHttpMessageNotReadable(org.springframework.http.converter.HttpMessageNotReadableException ex, HttpServletRequest request) {
+        recordOutcome(request, "invalid_request");
         String currentUser = getCurrentUsername();
         String technicalMessage = ex.getMessage();
         String userMessage = "Invalid input format or invalid value for fields (e.g., Role, SubscriptionTier).";
@@ -76,7 +144,8 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ApiResponse<Object>> handleGeneralException(Exception ex) {
+    public ResponseEntity<ApiResponse<Object>> handleGeneralException(Exception ex, HttpServletRequest request) {
+        recordOutcome(request, "error");
         String currentUser = getCurrentUsername();
         ApiResponse<Object> response = ApiResponse.error(
                 "An internal server error occurred.",
@@ -86,6 +155,33 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    // Only the case-insensitive unique indexes from V1 mean "already exists"
+    private static String duplicateUserMessage(DataIntegrityViolationException ex) {
+        String constraint = null;
+        for (Throwable cause = ex; cause != null && constraint == null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                constraint = violation.getConstraintName();
+            }
+        }
+        // JdbcTemplate writes (bulk, import) surface the driver message instead of a constraint name
+        String detail = constraint != null ? constraint : ex.getMostSpecificCause().getMessage();
+        if (detail == null) {
+            return null;
+        }
+        if (detail.contains(USERNAME_UNIQUE_CONSTRAINT)) {
+            return "Username already exists.";
+        }
+        if (detail.contains(EMAIL_UNIQUE_CONSTRAINT)) {
+            return "Email already exists.";
+        }
+        return null;
+    }
+
+    // Read by EndpointMetricsInterceptor for the auth.endpoint.requests outcome tag
+    private static void recordOutcome(HttpServletRequest request, String outcome) {
+        request.setAttribute(EndpointMetricsInterceptor.OUTCOME_ATTRIBUTE, outcome);
+    }
+
     // Helper to get current user if authenticated
     private String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
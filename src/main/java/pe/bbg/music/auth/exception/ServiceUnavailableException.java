@@ -0,0 +1,19 @@
+package pe.bbg.music.auth.exception;
+
+/**
+ * Thrown when a bounded resource (e.g. the password hashing pool) is saturated and the
+ * request is shed instead of queued. Mapped to 503 with a Retry-After header.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
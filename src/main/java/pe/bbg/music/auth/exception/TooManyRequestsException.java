@@ -0,0 +1,19 @@
+package pe.bbg.music.auth.exception;
+
+/**
+ * Thrown when a client exceeds a rate limit (e.g. login attempts per username or IP).
+ * Mapped to 429 with a Retry-After header.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
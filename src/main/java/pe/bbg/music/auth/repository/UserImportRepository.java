@@ -0,0 +1,47 @@
+package pe.bbg.music.auth.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pe.bbg.music.auth.entity.UserImportEntity;
+import pe.bbg.music.auth.entity.enums.UserImportStatusEnum;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface UserImportRepository extends JpaRepository<UserImportEntity, UUID> {
+
+    // Claims an import for resumption unless another run is still active (heartbeat newer than staleBefore)
+    @Transactional
+    @Modifying
+    @Query("update UserImportEntity i set i.status = pe.bbg.music.auth.entity.enums.UserImportStatusEnum.RUNNING, i.updatedAt = :now "
+            + "where i.id = :id and (i.status <> pe.bbg.music.auth.entity.enums.UserImportStatusEnum.RUNNING or i.updatedAt < :staleBefore)")
+    int claim(@Param("id") UUID id, @Param("now") LocalDateTime now, @Param("staleBefore") LocalDateTime staleBefore);
+
+    // Runs inside the chunk's transaction so progress never gets ahead of (or behind) the inserted rows
+    @Modifying
+    @Query("update UserImportEntity i set i.processed = i.processed + :processed, i.imported = i.imported + :imported, "
+            + "i.skipped = i.skipped + :skipped, i.failed = i.failed + :failed, "
+            + "i.lastError = coalesce(:lastError, i.lastError), i.updatedAt = :now where i.id = :id")
+    int addProgress(
+            @Param("id") UUID id,
+            @Param("processed") long processed,
+            @Param("imported") long imported,
+            @Param("skipped") long skipped,
+            @Param("failed") long failed,
+            @Param("lastError") String lastError,
+            @Param("now") LocalDateTime now
+    );
+
+    @Transactional
+    @Modifying
+    @Query("update UserImportEntity i set i.status = :status, i.lastError = coalesce(:lastError, i.lastError), i.updatedAt = :now where i.id = :id")
+    int finish(
+            @Param("id") UUID id,
+            @Param("status") UserImportStatusEnum status,
+            @Param("lastError") String lastError,
+            @Param("now") LocalDateTime now
+    );
+}
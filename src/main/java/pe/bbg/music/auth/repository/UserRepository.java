@@ -1,12 +1,76 @@
 package pe.bbg.music.auth.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.dto.UserResponse;
 import pe.bbg.music.auth.entity.UserEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<UserEntity, UUID> {
 
-    Optional<UserEntity> findByUsername(String username);
+    // Usernames are unique case-insensitively; lower(username) matches the ux_user_username_lower index
+    @Query("select u from UserEntity u where lower(u.username) = lower(:username)")
+    Optional<UserEntity> findByUsername(@Param("username") String username);
+
+    // Read path used on every authenticated request: a record projection, never a managed entity
+    @Transactional(readOnly = true)
+    @Query(UserPrincipalResponse.SELECT + "where lower(u.username) = lower(:username)")
+    Optional<UserPrincipalResponse> findPrincipalByUsername(@Param("username") String username);
+
+    @Transactional(readOnly = true)
+    @Query(UserPrincipalResponse.SELECT + "where u.id = :id")
+    Optional<UserPrincipalResponse> findPrincipalById(@Param("id") UUID id);
+
+    // Expects already lower-cased usernames so the functional index is used
+    @Transactional(readOnly = true)
+    @Query(UserPrincipalResponse.SELECT + "where lower(u.username) in :usernames")
+    List<UserPrincipalResponse> findAllPrincipalsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    @Transactional(readOnly = true)
+    @Query("select new pe.bbg.music.auth.dto.UserResponse("
+            + "u.id, u.username, u.email, u.role, u.avatarUrl, u.country, u.subscriptionTier) "
+            + "from UserEntity u where u.id = :id")
+    Optional<UserResponse> findUserResponseById(@Param("id") UUID id);
+
+    // Single-column updates: bulk JPQL bypasses the auditing listener, so callers pass the audit values
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.role = :role, u.updatedAt = :now, u.updatedBy = :updatedBy where u.id = :id")
+    int updateRole(
+            @Param("id") UUID id,
+            @Param("role") UserRoleEnum role,
+            @Param("now") LocalDateTime now,
+            @Param("updatedBy") String updatedBy
+    );
+
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.subscriptionTier = :tier, u.updatedAt = :now, u.updatedBy = :updatedBy where u.id = :id")
+    int updateSubscriptionTier(
+            @Param("id") UUID id,
+            @Param("tier") SubscriptionTierEnum tier,
+            @Param("now") LocalDateTime now,
+            @Param("updatedBy") String updatedBy
+    );
+
+    @Transactional
+    @Modifying
+    @Query("update UserEntity u set u.password = :password, u.updatedAt = :now, u.updatedBy = :updatedBy where u.id = :id")
+    int updatePassword(
+            @Param("id") UUID id,
+            @Param("password") String password,
+            @Param("now") LocalDateTime now,
+            @Param("updatedBy") String updatedBy
+    );
 }
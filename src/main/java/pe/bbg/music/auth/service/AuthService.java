@@ -1,17 +1,31 @@
 package pe.bbg.music.auth.service;
 
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import pe.bbg.music.auth.dto.*;
 import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
 import pe.bbg.music.auth.entity.UserEntity;
 import pe.bbg.music.auth.repository.UserRepository;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,38 +35,60 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final UserCacheService userCacheService;
+    private final TokenCacheService tokenCacheService;
+    private final PasswordHashingService passwordHashingService;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final InvalidationBusService invalidationBusService;
+    private final AuditorAware<String> auditorProvider;
+    private final LoginRateLimiterService loginRateLimiterService;
+    private final LoginAttemptService loginAttemptService;
+
+    @Value("${auth.validate.batch.max-size:100}")
+    private int batchValidateMaxSize;
 
     public AuthResponse register(RegisterRequest request) {
+        String encodedPassword = passwordHashingService.execute(() -> passwordEncoder.encode(request.getPassword()));
         var user = UserEntity.builder()
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(encodedPassword)
                 .email(request.getEmail())
-                .role(request.getRole())
+                .role(UserRoleEnum.USER) // Self-registration never grants elevated roles
                 .country(request.getCountry())
                 .subscriptionTier(SubscriptionTierEnum.FREE) // Default
                 .avatarUrl("https://ui-avatars.com/api/?name=" + request.getUsername()) // Default placeholder
                 .build();
-        repository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
+        // Duplicates are rejected by the unique indexes (DataIntegrityViolationException -> 409), no pre-check read
+        var principal = UserPrincipalResponse.from(repository.saveAndFlush(user));
+        var jwtToken = jwtService.generateToken(principal);
+        var refreshToken = refreshTokenService.issue(principal);
         return AuthResponse.builder()
                 .token(jwtToken)
                 .refreshToken(refreshToken)
-                .user(mapToUserResponse(user))
+                .user(mapToUserResponse(principal))
                 .build();
     }
 
-    public AuthResponse authenticate(AuthRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword()
-                )
-        );
-        var user = repository.findByUsername(request.getUsername())
+    public AuthResponse authenticate(AuthRequest request, String clientIp) {
+        // Shed credential stuffing before the user lookup and BCrypt compare
+        loginRateLimiterService.checkLogin(request.getUsername(), clientIp);
+        try {
+            passwordHashingService.execute(() -> authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getUsername(),
+                            request.getPassword()
+                    )
+            ));
+        } catch (BadCredentialsException e) {
+            loginAttemptService.recordFailure(request.getUsername());
+            throw e;
+        }
+        var user = userCacheService.findByUsername(request.getUsername())
                 .orElseThrow();
+        loginAttemptService.recordSuccess(user);
         var jwtToken = jwtService.generateToken(user);
-        var refreshToken = jwtService.generateRefreshToken(user);
+        var refreshToken = refreshTokenService.issue(user);
         return AuthResponse.builder()
                 .token(jwtToken)
                 .refreshToken(refreshToken)
@@ -62,14 +98,15 @@ public class AuthService {
 
     public AuthResponse refreshToken(RefreshTokenRequest request) {
         String refreshToken = request.getRefreshToken();
-        String username = jwtService.extractUsername(refreshToken);
-        if (username != null) {
-            var user = repository.findByUsername(username).orElseThrow();
-            if (jwtService.isTokenValid(refreshToken, user)) {
+        TokenClaimsResponse claims = jwtService.parseToken(refreshToken);
+        if (claims.isRefreshToken() && claims.getSubject() != null) {
+            var user = userCacheService.findByUsername(claims.getSubject()).orElseThrow();
+            if (jwtService.isTokenValid(claims, user)) {
+                var rotatedRefreshToken = refreshTokenService.rotate(claims, user);
                 var accessToken = jwtService.generateToken(user);
                 return AuthResponse.builder()
                         .token(accessToken)
-                        .refreshToken(refreshToken)
+                        .refreshToken(rotatedRefreshToken)
                         .user(mapToUserResponse(user))
                         .build();
             }
@@ -77,55 +114,172 @@ public class AuthService {
         throw new IllegalArgumentException("Invalid refresh token");
     }
 
+    public void logout(String accessToken, RefreshTokenRequest request) {
+        TokenClaimsResponse accessClaims = tokenCacheService.verify(accessToken);
+        if (accessClaims.getTokenId() != null && accessClaims.getExpiration() != null) {
+            tokenRevocationService.revoke(InvalidationEventRequest.tokenRevoked(accessClaims.getTokenId(), accessClaims.getExpiration()));
+        }
+        if (request != null && request.getRefreshToken() != null) {
+            TokenClaimsResponse refreshClaims = jwtService.parseToken(request.getRefreshToken());
+            if (refreshClaims.isRefreshToken() && accessClaims.getSubject().equals(refreshClaims.getSubject())) {
+                refreshTokenService.revoke(refreshClaims);
+            }
+        }
+    }
+
+    public List<TokenValidationResponse> validateTokens(BatchValidateRequest request) {
+        List<String> tokens = request.getTokens() != null ? request.getTokens() : List.of();
+        if (tokens.size() > batchValidateMaxSize) {
+            throw new IllegalArgumentException("A maximum of " + batchValidateMaxSize + " tokens can be validated per request");
+        }
+        // Signature checks are CPU-bound and independent, so spread them across cores
+        List<TokenVerification> verifications = IntStream.range(0, tokens.size())
+                .parallel()
+                .mapToObj(i -> verify(tokens.get(i)))
+                .toList();
+        Set<String> usernames = verifications.stream()
+                .map(TokenVerification::claims)
+                .filter(Objects::nonNull)
+                .map(TokenClaimsResponse::getSubject)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, UserPrincipalResponse> users = userCacheService.findAllByUsername(usernames);
+        return IntStream.range(0, verifications.size())
+                .mapToObj(i -> mapToTokenValidationResponse(i, verifications.get(i), users))
+                .toList();
+    }
+
     public UserResponse getCurrentUser() {
-        UserEntity user = getAuthenticatedUser();
-        return mapToUserResponse(user);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        if (principal instanceof UserPrincipalResponse user) {
+            return mapToUserResponse(user);
+        }
+        // Stateless principals carry no profile; read just the response columns instead of filling the user cache
+        if (principal instanceof TokenClaimsResponse claims && claims.getUserId() != null) {
+            return findUserResponse(claims.getUserId());
+        }
+        return mapToUserResponse(getAuthenticatedUser());
     }
 
     public void changePassword(ChangePasswordRequest request) {
-        UserEntity user = getAuthenticatedUser();
-        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
-            throw new IllegalArgumentException("Incorrect current password");
+        UserPrincipalResponse principal = getAuthenticatedUser();
+        String encodedPassword = passwordHashingService.execute(() -> {
+            if (!passwordEncoder.matches(request.getCurrentPassword(), principal.getPassword())) {
+                throw new IllegalArgumentException("Incorrect current password");
+            }
+            return passwordEncoder.encode(request.getNewPassword());
+        });
+        if (repository.updatePassword(principal.id(), encodedPassword, LocalDateTime.now(), currentAuditor()) == 0) {
+            throw new IllegalArgumentException("User not found");
         }
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        repository.save(user);
+        // Every session opened with the old password ends here, on every instance
+        publishUserChanged(principal.id());
+        refreshTokenService.revokeAllForUser(principal.id());
     }
 
     public UserResponse changeRole(UUID userId, ChangeRoleRequest request) {
-        UserEntity user = repository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        user.setRole(request.getNewRole());
-        repository.save(user);
-        return mapToUserResponse(user);
+        if (repository.updateRole(userId, request.getNewRole(), LocalDateTime.now(), currentAuditor()) == 0) {
+            throw new IllegalArgumentException("User not found");
+        }
+        publishUserChanged(userId);
+        return findUserResponse(userId);
     }
 
     public UserResponse changeSubscriptionTier(UUID userId, ChangeSubscriptionTierRequest request) {
-        UserEntity user = repository.findById(userId)
+        if (repository.updateSubscriptionTier(userId, request.getNewTier(), LocalDateTime.now(), currentAuditor()) == 0) {
+            throw new IllegalArgumentException("User not found");
+        }
+        publishUserChanged(userId);
+        return findUserResponse(userId);
+    }
+
+    private UserResponse findUserResponse(UUID userId) {
+        return repository.findUserResponseById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        user.setSubscriptionTier(request.getNewTier());
-        repository.save(user);
-        return mapToUserResponse(user);
     }
 
-    private UserEntity getAuthenticatedUser() {
+    // Bulk updates skip AuditingEntityListener, so updatedBy comes from the same AuditorAware
+    private String currentAuditor() {
+        return auditorProvider.getCurrentAuditor().orElse("SYSTEM");
+    }
+
+    // Outstanding access tokens carry the old role/tier claims; clients refresh to pick up the new ones
+    private void publishUserChanged(UUID userId) {
+        invalidationBusService.publish(InvalidationEventRequest.userChanged(List.of(userId)));
+        tokenRevocationService.revoke(InvalidationEventRequest.userTokensRevoked(List.of(userId), Instant.now()));
+    }
+
+    private UserPrincipalResponse getAuthenticatedUser() {
         Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        if (principal instanceof UserEntity) {
-            return (UserEntity) principal;
+        if (principal instanceof UserPrincipalResponse user) {
+            return user;
         }
         String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return repository.findByUsername(username)
+        return userCacheService.findByUsername(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
-    private UserResponse mapToUserResponse(UserEntity user) {
+    private TokenVerification verify(String token) {
+        try {
+            TokenClaimsResponse claims = tokenCacheService.verify(token);
+            // Refresh tokens are only checked by RefreshTokenService, when they are exchanged
+            if (!claims.isAccessToken()) {
+                return new TokenVerification(null, "Not an access token");
+            }
+            if (tokenRevocationService.isRevoked(claims)) {
+                return new TokenVerification(null, "Token revoked");
+            }
+            return new TokenVerification(claims, null);
+        } catch (ExpiredJwtException e) {
+            return new TokenVerification(null, "Token expired");
+        } catch (JwtException | IllegalArgumentException e) {
+            return new TokenVerification(null, "Invalid token");
+        }
+    }
+
+    private TokenValidationResponse mapToTokenValidationResponse(
+            int index,
+            TokenVerification verification,
+            Map<String, UserPrincipalResponse> users
+    ) {
+        if (verification.claims() == null) {
+            return TokenValidationResponse.builder()
+                    .index(index)
+                    .valid(false)
+                    .reason(verification.error())
+                    .build();
+        }
+        UserPrincipalResponse user = users.get(verification.claims().getSubject());
+        if (user == null) {
+            return TokenValidationResponse.builder()
+                    .index(index)
+                    .valid(false)
+                    .reason("User not found")
+                    .build();
+        }
+        return TokenValidationResponse.builder()
+                .index(index)
+                .valid(true)
+                .userId(user.id())
+                .username(user.username())
+                .role(user.role())
+                .subscriptionTier(user.subscriptionTier())
+                .expiresAt(verification.claims().getExpiration())
+                .build();
+    }
+
+    private record TokenVerification(TokenClaimsResponse claims, String error) {
+    }
+
+    private UserResponse mapToUserResponse(UserPrincipalResponse user) {
         return UserResponse.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .role(user.getRole())
-                .avatarUrl(user.getAvatarUrl())
-                .country(user.getCountry())
-                .subscriptionTier(user.getSubscriptionTier())
+                .id(user.id())
+                .username(user.username())
+                .email(user.email())
+                .role(user.role())
+                .avatarUrl(user.avatarUrl())
+                .country(user.country())
+                .subscriptionTier(user.subscriptionTier())
                 .build();
     }
 }
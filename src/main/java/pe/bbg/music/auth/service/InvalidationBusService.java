@@ -0,0 +1,13 @@
+package pe.bbg.music.auth.service;
+
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+
+/**
+ * Propagates {@link InvalidationEventRequest}s to every instance of the service, including this one.
+ * Selected with {@code auth.invalidation.bus}: {@code postgres} (default, LISTEN/NOTIFY on the
+ * existing datasource) or {@code local} (single instance, in-process only).
+ */
+public interface InvalidationBusService {
+
+    void publish(InvalidationEventRequest event);
+}
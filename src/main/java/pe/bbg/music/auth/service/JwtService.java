@@ -1,30 +1,94 @@
 package pe.bbg.music.auth.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.ProtectedHeader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
-
-import javax.crypto.SecretKey;
+import pe.bbg.music.auth.dto.SigningKeyResponse;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.dto.enums.TokenTypeEnum;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
-
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    // access or refresh, so a refresh token is never accepted as a bearer token
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+    public static final String TIER_CLAIM = "tier";
+    // iat is whole seconds; revocation cutoffs need the exact issue time (TokenRevocationService)
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    private final long jwtExpiration;
+    private final long refreshExpiration;
+
+    private final SigningKeyService signingKeyService;
+
+    // Built once at startup: the parser is immutable and thread-safe, keys are resolved by kid
+    private final JwtParser jwtParser;
+
+    private final Timer accessSignTimer;
+    private final Timer refreshSignTimer;
+    private final Timer verifyValidTimer;
+    private final Timer verifyExpiredTimer;
+    private final Timer verifyInvalidTimer;
+
+    public JwtService(
+            SigningKeyService signingKeyService,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.expiration}") long jwtExpiration,
+            @Value("${jwt.refresh-expiration}") long refreshExpiration
+    ) {
+        this.signingKeyService = signingKeyService;
+        this.jwtExpiration = jwtExpiration;
+        this.refreshExpiration = refreshExpiration;
+        this.jwtParser = Jwts.parser()
+                .keyLocator(header -> header instanceof ProtectedHeader protectedHeader
+                        ? signingKeyService.findVerificationKey(protectedHeader.getKeyId(), protectedHeader.getAlgorithm())
+                        : null)
+                .build();
+        this.accessSignTimer = signTimer(meterRegistry, "access");
+        this.refreshSignTimer = signTimer(meterRegistry, "refresh");
+        this.verifyValidTimer = verifyTimer(meterRegistry, "valid");
+        this.verifyExpiredTimer = verifyTimer(meterRegistry, "expired");
+        this.verifyInvalidTimer = verifyTimer(meterRegistry, "invalid");
+    }
 
-    @Value("${jwt.refresh-expiration}")
-    private long refreshExpiration;
+    /**
+     * Verifies the signature once and returns every claim the callers need.
+     * Throws the usual {@link io.jsonwebtoken.JwtException} subtypes for invalid or expired tokens.
+     */
+    public TokenClaimsResponse parseToken(String token) {
+        final Claims claims = extractAllClaims(token);
+        return TokenClaimsResponse.builder()
+                .tokenId(claims.getId())
+                .tokenType(tokenType(claims))
+                .subject(claims.getSubject())
+                .userId(claims.get(USER_ID_CLAIM) != null ? UUID.fromString(claims.get(USER_ID_CLAIM, String.class)) : null)
+                .role(enumClaim(claims, ROLE_CLAIM, UserRoleEnum.class))
+                .subscriptionTier(enumClaim(claims, TIER_CLAIM, SubscriptionTierEnum.class))
+                .issuedAt(issuedAt(claims))
+                .expiration(claims.getExpiration() != null ? claims.getExpiration().toInstant() : null)
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -36,54 +100,119 @@ public class JwtService {
     }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(new HashMap<>(), userDetails);
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof UserPrincipalResponse user) {
+            // Identity claims let the filter authenticate without a database lookup (jwt.stateless.enabled)
+            if (user.id() != null) {
+                claims.put(USER_ID_CLAIM, user.id().toString());
+            }
+            if (user.role() != null) {
+                claims.put(ROLE_CLAIM, user.role().name());
+            }
+            if (user.subscriptionTier() != null) {
+                claims.put(TIER_CLAIM, user.subscriptionTier().name());
+            }
+        }
+        return generateToken(claims, userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        // A unique jti lets a single access token be revoked (TokenRevocationService)
+        return accessSignTimer.record(() -> buildToken(
+                TokenTypeEnum.ACCESS, extraClaims, userDetails, UUID.randomUUID().toString(), jwtExpiration));
     }
 
-    public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+    // The token id (jti) is what RefreshTokenService persists, hashed, to track rotation
+    public String generateRefreshToken(UserDetails userDetails, String tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        // No role or tier: those are read from the user when the token is exchanged
+        if (userDetails instanceof UserPrincipalResponse user && user.id() != null) {
+            claims.put(USER_ID_CLAIM, user.id().toString());
+        }
+        return refreshSignTimer.record(() -> buildToken(
+                TokenTypeEnum.REFRESH, claims, userDetails, tokenId, refreshExpiration));
     }
 
     private String buildToken(
+            TokenTypeEnum tokenType,
             Map<String, Object> extraClaims,
             UserDetails userDetails,
+            String tokenId,
             long expiration
     ) {
+        long now = System.currentTimeMillis();
+        SigningKeyResponse signingKey = signingKeyService.getActiveKey();
         return Jwts.builder()
+                .header().keyId(signingKey.getKid()).and()
                 .claims(extraClaims)
+                .claim(TOKEN_TYPE_CLAIM, tokenType.name().toLowerCase(Locale.ROOT))
+                .claim(ISSUED_AT_MILLIS_CLAIM, now)
+                .id(tokenId)
                 .subject(userDetails.getUsername())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey.getSigningKey())
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(parseToken(token), userDetails);
+    }
+
+    public boolean isTokenValid(TokenClaimsResponse claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !claims.isExpired();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims extractAllClaims(String token) {
+        long start = System.nanoTime();
+        Timer outcome = verifyInvalidTimer;
+        try {
+            Claims claims = jwtParser
+                    .parseSignedClaims(token)
+                    .getPayload();
+            outcome = verifyValidTimer;
+            return claims;
+        } catch (ExpiredJwtException e) {
+            outcome = verifyExpiredTimer;
+            throw e;
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static Timer signTimer(MeterRegistry meterRegistry, String type) {
+        return Timer.builder("auth.jwt.sign")
+                .description("Time to build and sign a token")
+                .tag("type", type)
+                .register(meterRegistry);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Only cache misses reach this (see TokenCacheService)
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Time to parse and verify a token signature")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    // Tokens issued before iat_ms existed fall back to the second-precision iat
+    private static Instant issuedAt(Claims claims) {
+        if (claims.get(ISSUED_AT_MILLIS_CLAIM) instanceof Number millis) {
+            return Instant.ofEpochMilli(millis.longValue());
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null;
+    }
+
+    // Null for tokens issued before the typ claim existed (see TokenClaimsResponse#isAccessToken)
+    private static TokenTypeEnum tokenType(Claims claims) {
+        String value = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        return value != null ? TokenTypeEnum.valueOf(value.toUpperCase(Locale.ROOT)) : null;
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static <E extends Enum<E>> E enumClaim(Claims claims, String name, Class<E> type) {
+        String value = claims.get(name, String.class);
+        return value != null ? Enum.valueOf(type, value) : null;
     }
 }
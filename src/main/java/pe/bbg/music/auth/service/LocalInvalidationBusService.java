@@ -0,0 +1,20 @@
+package pe.bbg.music.auth.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.invalidation.bus", havingValue = "local")
+public class LocalInvalidationBusService implements InvalidationBusService {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void publish(InvalidationEventRequest event) {
+        applicationEventPublisher.publishEvent(event);
+    }
+}
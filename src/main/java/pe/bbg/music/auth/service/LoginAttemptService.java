@@ -0,0 +1,188 @@
+package pe.bbg.music.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Failed-login tracking and temporary lockout. Counters live in a bounded Caffeine cache keyed by
+ * user id; an entry decays (is forgotten) after {@code auth.lockout.decay} without failures. Changes
+ * are written to {@code tbl_user.failed_attempts / locked_until} in periodic JDBC batches, never on the
+ * login request itself. The in-memory lock is merged into the principal by the
+ * {@code UserDetailsService}, so {@code DaoAuthenticationProvider} rejects a locked account before
+ * comparing the password. Only known users are tracked: unknown usernames never allocate an entry.
+ */
+@Service
+@Lazy(false)
+@Slf4j
+public class LoginAttemptService {
+
+    private static final String FAILURE_SQL = "UPDATE tbl_user SET failed_attempts = ?, "
+            + "locked_until = GREATEST(locked_until, ?) WHERE id = ?";
+    private static final String RESET_SQL = "UPDATE tbl_user SET failed_attempts = 0, locked_until = NULL "
+            + "WHERE id = ? AND (failed_attempts <> 0 OR locked_until IS NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserCacheService userCacheService;
+    private final InvalidationBusService invalidationBusService;
+    private final boolean enabled;
+    private final int maxFailures;
+    private final Duration lockDuration;
+    private final Cache<UUID, Attempts> attempts;
+    // Latest state per user not yet written to tbl_user; drained by flush()
+    private final Map<UUID, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final Counter lockedCounter;
+
+    public LoginAttemptService(
+            JdbcTemplate jdbcTemplate,
+            UserCacheService userCacheService,
+            InvalidationBusService invalidationBusService,
+            MeterRegistry meterRegistry,
+            @Value("${auth.lockout.enabled:true}") boolean enabled,
+            @Value("${auth.lockout.max-failures:5}") int maxFailures,
+            @Value("${auth.lockout.lock-duration:900000}") long lockDuration,
+            @Value("${auth.lockout.decay:900000}") long decay,
+            @Value("${auth.lockout.maximum-size:100000}") long maximumSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userCacheService = userCacheService;
+        this.invalidationBusService = invalidationBusService;
+        this.enabled = enabled;
+        this.maxFailures = maxFailures;
+        this.lockDuration = Duration.ofMillis(lockDuration);
+        // An entry must outlive its lock so the lock holds locally until it has been flushed
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(Math.max(decay, lockDuration)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, attempts, "login.attempts");
+        this.lockedCounter = Counter.builder("auth.login.locked")
+                .description("Accounts locked after repeated failed logins")
+                .register(meterRegistry);
+    }
+
+    public void recordFailure(String username) {
+        if (!enabled || username == null) {
+            return;
+        }
+        // DaoAuthenticationProvider has just loaded a known user, so this is a cache hit; unknown users are skipped
+        userCacheService.findCachedByUsername(username).ifPresent(user -> {
+            Attempts updated = attempts.asMap().compute(user.id(), (id, current) -> {
+                // Starts from zero rather than tbl_user.failed_attempts, which does not decay
+                int failures = (current != null ? current.failures() : 0) + 1;
+                LocalDateTime lockedUntil = failures >= maxFailures ? LocalDateTime.now().plus(lockDuration) : null;
+                return new Attempts(failures, lockedUntil);
+            });
+            pending.put(user.id(), new PendingWrite(updated.failures(), updated.lockedUntil()));
+            if (updated.lockedUntil() != null && updated.failures() == maxFailures) {
+                lockedCounter.increment();
+                log.warn("User {} locked until {} after {} failed logins", user.username(), updated.lockedUntil(), updated.failures());
+            }
+        });
+    }
+
+    public void recordSuccess(UserPrincipalResponse user) {
+        if (!enabled) {
+            return;
+        }
+        Attempts previous = attempts.asMap().remove(user.id());
+        // Only users with something to clear cost a write
+        if (previous != null || user.failedAttempts() > 0 || user.lockedUntil() != null) {
+            pending.put(user.id(), PendingWrite.RESET);
+        }
+    }
+
+    /**
+     * Returns the principal with the in-memory lock applied, so a lock takes effect on this
+     * instance immediately rather than after the next flush.
+     */
+    public UserPrincipalResponse applyLockState(UserPrincipalResponse user) {
+        if (!enabled) {
+            return user;
+        }
+        Attempts current = attempts.getIfPresent(user.id());
+        if (current == null || current.lockedUntil() == null) {
+            return user;
+        }
+        if (user.lockedUntil() != null && !user.lockedUntil().isBefore(current.lockedUntil())) {
+            return user;
+        }
+        return user.withLockedUntil(current.lockedUntil());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.lockout.flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> failures = new ArrayList<>();
+        List<Object[]> resets = new ArrayList<>();
+        List<UUID> locked = new ArrayList<>();
+        for (UUID id : pending.keySet()) {
+            PendingWrite write = pending.remove(id);
+            if (write == null) {
+                continue;
+            }
+            if (write == PendingWrite.RESET) {
+                resets.add(new Object[]{id});
+            } else {
+                failures.add(new Object[]{
+                        write.failures(),
+                        new SqlParameterValue(Types.TIMESTAMP,
+                                write.lockedUntil() != null ? Timestamp.valueOf(write.lockedUntil()) : null),
+                        id
+                });
+                if (write.lockedUntil() != null) {
+                    locked.add(id);
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAILURE_SQL, failures);
+        }
+        if (!resets.isEmpty()) {
+            jdbcTemplate.batchUpdate(RESET_SQL, resets);
+        }
+        // Peers reload the principal and see locked_until
+        if (!locked.isEmpty()) {
+            invalidationBusService.publish(InvalidationEventRequest.userChanged(locked));
+        }
+        log.debug("Flushed login attempts: {} failures, {} resets", failures.size(), resets.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record Attempts(int failures, LocalDateTime lockedUntil) {
+    }
+
+    private record PendingWrite(int failures, LocalDateTime lockedUntil) {
+
+        static final PendingWrite RESET = new PendingWrite(0, null);
+    }
+}
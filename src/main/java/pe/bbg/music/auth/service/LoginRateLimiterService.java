@@ -0,0 +1,151 @@
+package pe.bbg.music.auth.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.exception.TooManyRequestsException;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory token buckets for {@code /auth/login}, keyed by username and by client IP, checked
+ * before any user lookup or password hashing. Buckets live in lock-striped, size-bounded LRU maps:
+ * a key only contends with keys in its own stripe, and an attacker cycling usernames can at worst
+ * evict idle (full) buckets, while the per-IP bucket still holds.
+ */
+@Service
+@Slf4j
+public class LoginRateLimiterService {
+
+    private static final String REJECTED_MESSAGE = "Too many login attempts. Please retry later.";
+
+    private final boolean enabled;
+    private final Limit usernameLimit;
+    private final Limit ipLimit;
+    private final Stripe[] stripes;
+    private final Counter usernameRejections;
+    private final Counter ipRejections;
+
+    public LoginRateLimiterService(
+            MeterRegistry meterRegistry,
+            @Value("${auth.rate-limit.login.enabled:true}") boolean enabled,
+            @Value("${auth.rate-limit.login.username.capacity:10}") int usernameCapacity,
+            @Value("${auth.rate-limit.login.username.refill-per-minute:10}") int usernameRefillPerMinute,
+            @Value("${auth.rate-limit.login.ip.capacity:50}") int ipCapacity,
+            @Value("${auth.rate-limit.login.ip.refill-per-minute:50}") int ipRefillPerMinute,
+            @Value("${auth.rate-limit.login.stripes:64}") int stripeCount,
+            @Value("${auth.rate-limit.login.max-entries:100000}") int maxEntries
+    ) {
+        this.enabled = enabled;
+        this.usernameLimit = new Limit(usernameCapacity, usernameRefillPerMinute);
+        this.ipLimit = new Limit(ipCapacity, ipRefillPerMinute);
+        int count = Integer.highestOneBit(Math.max(1, stripeCount));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(Math.max(1, maxEntries / count));
+        }
+        this.usernameRejections = Counter.builder("auth.login.rate-limited")
+                .description("Login attempts rejected by the rate limiter before authentication")
+                .tag("key", "username")
+                .register(meterRegistry);
+        this.ipRejections = Counter.builder("auth.login.rate-limited")
+                .description("Login attempts rejected by the rate limiter before authentication")
+                .tag("key", "ip")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one token from the client IP bucket and one from the username bucket.
+     *
+     * @throws TooManyRequestsException when either bucket is empty
+     */
+    public void checkLogin(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (clientIp != null) {
+            long retryAfter = tryAcquire("ip:" + clientIp, ipLimit, now);
+            if (retryAfter > 0) {
+                ipRejections.increment();
+                throw new TooManyRequestsException(REJECTED_MESSAGE, retryAfter);
+            }
+        }
+        if (username != null) {
+            long retryAfter = tryAcquire("u:" + username.toLowerCase(Locale.ROOT), usernameLimit, now);
+            if (retryAfter > 0) {
+                usernameRejections.increment();
+                log.debug("Login rate limit reached for user {}", username);
+                throw new TooManyRequestsException(REJECTED_MESSAGE, retryAfter);
+            }
+        }
+    }
+
+    // Returns 0 when a token was taken, otherwise the seconds until one is available
+    private long tryAcquire(String key, Limit limit, long now) {
+        Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+        stripe.lock.lock();
+        try {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(limit.capacity(), now);
+                stripe.buckets.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(limit.capacity(), bucket.tokens + (now - bucket.refilledAt) * limit.tokensPerNano());
+                bucket.refilledAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            double nanosUntilToken = (1 - bucket.tokens) / limit.tokensPerNano();
+            return Math.max(1, (long) Math.ceil(nanosUntilToken / TimeUnit.SECONDS.toNanos(1)));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Limit(double capacity, double tokensPerNano) {
+
+        Limit(int capacity, int refillPerMinute) {
+            this(Math.max(1, capacity), Math.max(1, refillPerMinute) / (double) TimeUnit.MINUTES.toNanos(1));
+        }
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        private Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Bucket> buckets;
+
+        private Stripe(int maxEntries) {
+            // Access-ordered, so the least recently used bucket is evicted once the stripe is full
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package pe.bbg.music.auth.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.enums.InvalidationTypeEnum;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invalidation bus over Postgres {@code LISTEN/NOTIFY} on the application datasource, so no
+ * broker is needed. Events are applied locally at once; for peers they are buffered for
+ * {@code auth.invalidation.batch-window} ms, coalesced by type (keys de-duplicated) and sent as
+ * few NOTIFY payloads as the 8000-byte limit allows. Delivery is best effort: notifications sent
+ * while the listener is reconnecting, or that fail to send, are lost. After a reconnect a local
+ * {@code RESYNC} event is published. Cached users and claims are then bounded by the cache TTLs,
+ * while revocations are re-read from {@code tbl_token_revocation} (see {@link TokenRevocationService}).
+ * <p>
+ * Wire format: {@code TYPE|origin|at|key1,key2,...}
+ */
+@Service
+@Lazy(false)
+@Slf4j
+@ConditionalOnProperty(name = "auth.invalidation.bus", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationBusService implements InvalidationBusService {
+
+    private static final String CHANNEL = "auth_invalidation";
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final long batchWindow;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final BlockingQueue<InvalidationEventRequest> outbox = new LinkedBlockingQueue<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+    private Thread senderThread;
+
+    public PostgresInvalidationBusService(
+            DataSource dataSource,
+            ApplicationEventPublisher applicationEventPublisher,
+            @Value("${auth.invalidation.batch-window:10}") long batchWindow
+    ) {
+        this.dataSource = dataSource;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.batchWindow = batchWindow;
+    }
+
+    @Override
+    public void publish(InvalidationEventRequest event) {
+        InvalidationEventRequest local = event.toBuilder().origin(instanceId).build();
+        applicationEventPublisher.publishEvent(local);
+        outbox.add(local);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform().daemon().name("invalidation-listener").start(this::listen);
+        senderThread = Thread.ofPlatform().daemon().name("invalidation-sender").start(this::send);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listenerThread.interrupt();
+        senderThread.interrupt();
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for invalidation events on channel {}", CHANNEL);
+                if (reconnecting) {
+                    applicationEventPublisher.publishEvent(InvalidationEventRequest.resync());
+                }
+                reconnecting = true;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(500);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Invalidation listener connection lost, reconnecting: {}", e.getMessage());
+                    sleepQuietly(1000);
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            String[] parts = payload.split("\\|", 4);
+            if (instanceId.equals(parts[1])) {
+                return;
+            }
+            applicationEventPublisher.publishEvent(InvalidationEventRequest.builder()
+                    .type(InvalidationTypeEnum.valueOf(parts[0]))
+                    .origin(parts[1])
+                    .at(Long.parseLong(parts[2]))
+                    .keys(parts[3].isEmpty() ? List.of() : Arrays.asList(parts[3].split(",")))
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Ignoring malformed invalidation payload: {}", payload, e);
+        }
+    }
+
+    private void send() {
+        while (running) {
+            try {
+                List<InvalidationEventRequest> batch = new ArrayList<>();
+                batch.add(outbox.take());
+                // Let a burst accumulate, then coalesce it into as few notifications as possible
+                TimeUnit.MILLISECONDS.sleep(batchWindow);
+                outbox.drainTo(batch);
+                notifyPeers(coalesce(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (SQLException e) {
+                log.warn("Failed to publish invalidation events: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Map<String, Set<String>> coalesce(List<InvalidationEventRequest> events) {
+        Map<String, Set<String>> keysByHeader = new LinkedHashMap<>();
+        for (InvalidationEventRequest event : events) {
+            String header = event.getType() + "|" + event.getOrigin() + "|" + event.getAt() + "|";
+            keysByHeader.computeIfAbsent(header, h -> new LinkedHashSet<>()).addAll(event.getKeys());
+        }
+        return keysByHeader;
+    }
+
+    private void notifyPeers(Map<String, Set<String>> keysByHeader) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (Map.Entry<String, Set<String>> entry : keysByHeader.entrySet()) {
+                for (String payload : payloads(entry.getKey(), entry.getValue())) {
+                    statement.setString(1, CHANNEL);
+                    statement.setString(2, payload);
+                    statement.execute();
+                }
+            }
+        }
+    }
+
+    // Splits the keys so each payload stays under the NOTIFY size limit (keys are ASCII)
+    private static List<String> payloads(String header, Set<String> keys) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(header);
+        boolean empty = true;
+        for (String key : keys) {
+            int size = payload.length() + key.length() + 1;
+            if (!empty && size > MAX_PAYLOAD_BYTES) {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(header);
+                empty = true;
+            }
+            if (!empty) {
+                payload.append(',');
+            }
+            payload.append(key);
+            empty = false;
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package pe.bbg.music.auth.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.entity.RefreshTokenEntity;
+import pe.bbg.music.auth.repository.RefreshTokenRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Persistent refresh tokens: every refresh rotates the token within its family, and
+ * presenting an already-rotated token revokes the whole family (likely theft).
+ */
+@Service
+@Lazy(false)
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository repository;
+    private final JwtService jwtService;
+
+    @Value("${jwt.refresh-expiration}")
+    private long refreshExpiration;
+
+    @Value("${auth.refresh-token.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    public String issue(UserPrincipalResponse user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    public String rotate(TokenClaimsResponse claims, UserPrincipalResponse user) {
+        if (claims.getTokenId() == null) {
+            throw new IllegalArgumentException("Invalid refresh token");
+        }
+        RefreshTokenEntity current = repository.findByTokenHash(hash(claims.getTokenId()))
+                .filter(token -> token.getUserId().equals(user.id()))
+                .orElseThrow(() -> new IllegalArgumentException("Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+        if (current.getRevokedAt() != null || repository.markUsed(current.getId(), now) == 0) {
+            repository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for user {}; token family {} revoked", user.username(), current.getFamilyId());
+            throw new IllegalArgumentException("Refresh token has already been used. Please login again.");
+        }
+        return issue(user, current.getFamilyId());
+    }
+
+    public void revoke(TokenClaimsResponse claims) {
+        if (claims.getTokenId() == null) {
+            return;
+        }
+        repository.findByTokenHash(hash(claims.getTokenId()))
+                .ifPresent(token -> repository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    public void revokeAllForUser(UUID userId) {
+        repository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh-token.purge-interval:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        // Small chunks keep each delete short and avoid long locks on the table
+        do {
+            deleted = repository.deleteExpiredBatch(now, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+
+    private String issue(UserPrincipalResponse user, UUID familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        String token = jwtService.generateRefreshToken(user, tokenId);
+        repository.save(RefreshTokenEntity.builder()
+                .tokenHash(hash(tokenId))
+                .familyId(familyId)
+                .userId(user.id())
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpiration)))
+                .build());
+        return token;
+    }
+
+    private static String hash(String tokenId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(tokenId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
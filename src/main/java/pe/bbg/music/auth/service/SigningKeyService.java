@@ -0,0 +1,277 @@
+package pe.bbg.music.auth.service;
+
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.SigningKeyResponse;
+import pe.bbg.music.auth.dto.enums.InvalidationTypeEnum;
+
+import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyring holding the key material used to sign and verify tokens.
+ * <ul>
+ *     <li>{@code HS256} (default): shared secret from {@code jwt.secret}.</li>
+ *     <li>{@code ES256} / {@code EdDSA}: key pair from {@code jwt.private-key} (Base64 PKCS#8)
+ *     and {@code jwt.public-key} (Base64 X.509). Public halves are published as a JWKS so
+ *     other services can verify tokens locally. Startup fails when the pair is missing, unless
+ *     {@code jwt.ephemeral-keys.enabled} (dev profile) allows a throwaway pair.</li>
+ * </ul>
+ * Exactly one key signs; every key in the ring verifies, selected by the token {@code kid}.
+ * Rotation without mass re-login: keep retired keys in {@code jwt.verify-secrets} /
+ * {@code jwt.verify-public-keys}, or stage the next key in {@code jwt.next-*} and promote it
+ * at runtime with {@link #rotate()}.
+ * <p>
+ * Rotation state is held in memory only: an instance that restarts (or scales out) after a
+ * runtime rotation signs with the configured {@code jwt.*} key again. Move the promoted key into
+ * {@code jwt.*} and the previous one into {@code jwt.verify-*} before the next deploy.
+ * <p>
+ * After moving to ES256/EdDSA the shared {@code jwt.secret} no longer verifies anything, unless
+ * {@code jwt.legacy-hmac.accept-until} is set. Until that instant, {@code HS256} tokens signed
+ * with it are still accepted, so sessions issued before the switch run out instead of being cut.
+ */
+@Service
+@Slf4j
+public class SigningKeyService {
+
+    public static final String HS256 = "HS256";
+    public static final String ES256 = "ES256";
+    public static final String EDDSA = "EdDSA";
+
+    // HS256 key from jwt.secret, kept in asymmetric mode only while legacyAcceptUntil is ahead
+    private final SigningKeyResponse legacyKey;
+    private final Instant legacyAcceptUntil;
+    private volatile Keyring keyring;
+
+    public SigningKeyService(
+            @Value("${jwt.algorithm:HS256}") String algorithm,
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.private-key:}") String privateKey,
+            @Value("${jwt.public-key:}") String publicKey,
+            @Value("${jwt.next-secret:}") String nextSecret,
+            @Value("${jwt.next-private-key:}") String nextPrivateKey,
+            @Value("${jwt.next-public-key:}") String nextPublicKey,
+            @Value("${jwt.verify-secrets:}") List<String> verifySecrets,
+            @Value("${jwt.verify-public-keys:}") List<String> verifyPublicKeys,
+            @Value("${jwt.legacy-hmac.accept-until:}") String legacyAcceptUntil,
+            @Value("${jwt.ephemeral-keys.enabled:false}") boolean ephemeralKeysEnabled
+    ) {
+        boolean hmac = HS256.equals(algorithm);
+        if (!hmac && (privateKey.isBlank() || publicKey.isBlank()) && !ephemeralKeysEnabled) {
+            // A generated pair would sign tokens no other instance, and no restart, can verify
+            throw new IllegalStateException("jwt.algorithm=" + algorithm + " requires jwt.private-key and jwt.public-key"
+                    + " (ephemeral keys are only generated with jwt.ephemeral-keys.enabled, see the dev profile)");
+        }
+        SigningKeyResponse active = hmac
+                ? hmacKey(secret)
+                : asymmetricKey(algorithm, privateKey, publicKey);
+        this.legacyAcceptUntil = legacyAcceptUntil.isBlank() ? null : Instant.parse(legacyAcceptUntil);
+        if (!hmac && this.legacyAcceptUntil != null && this.legacyAcceptUntil.isAfter(Instant.now())) {
+            this.legacyKey = hmacKey(secret);
+            log.warn("HS256 tokens signed with jwt.secret are accepted until {} (jwt.legacy-hmac.accept-until)", this.legacyAcceptUntil);
+        } else {
+            this.legacyKey = null;
+        }
+        SigningKeyResponse staged = null;
+        if (HS256.equals(algorithm) && !nextSecret.isBlank()) {
+            staged = hmacKey(nextSecret);
+        } else if (!HS256.equals(algorithm) && !nextPrivateKey.isBlank() && !nextPublicKey.isBlank()) {
+            staged = asymmetricKey(algorithm, nextPrivateKey, nextPublicKey);
+        }
+
+        Map<String, SigningKeyResponse> keysByKid = new LinkedHashMap<>();
+        verifySecrets.stream()
+                .filter(value -> !value.isBlank())
+                .map(SigningKeyService::hmacKey)
+                .forEach(key -> keysByKid.put(key.getKid(), key));
+        verifyPublicKeys.stream()
+                .filter(value -> !value.isBlank())
+                .map(SigningKeyService::verificationOnlyKey)
+                .forEach(key -> keysByKid.put(key.getKid(), key));
+        keysByKid.put(active.getKid(), active);
+        if (staged != null) {
+            keysByKid.put(staged.getKid(), staged);
+        }
+        this.keyring = new Keyring(active, staged, Map.copyOf(keysByKid));
+        log.info("Token keyring loaded: algorithm={}, activeKid={}, stagedKid={}, keys={}",
+                active.getAlgorithm(), active.getKid(), staged != null ? staged.getKid() : null, keysByKid.size());
+    }
+
+    public SigningKeyResponse getActiveKey() {
+        return keyring.active();
+    }
+
+    /**
+     * Resolves the key for a token header. Without a kid the active key is used; the legacy HMAC
+     * key only ever verifies {@code HS256} tokens, and only until its deadline.
+     */
+    public Key findVerificationKey(String kid, String algorithm) {
+        if (legacyKey != null && (kid == null || kid.equals(legacyKey.getKid()))
+                && HS256.equals(algorithm) && Instant.now().isBefore(legacyAcceptUntil)) {
+            return legacyKey.getVerificationKey();
+        }
+        if (kid == null) {
+            return keyring.active().getVerificationKey();
+        }
+        SigningKeyResponse key = keyring.keysByKid().get(kid);
+        return key != null ? key.getVerificationKey() : null;
+    }
+
+    /**
+     * Promotes the staged key to signing key. The previous key stays in the ring as verify-only,
+     * so tokens it signed remain valid until they expire.
+     */
+    public synchronized SigningKeyResponse rotate() {
+        Keyring current = keyring;
+        if (current.staged() == null) {
+            throw new IllegalArgumentException("No staged signing key configured (jwt.next-secret or jwt.next-private-key/jwt.next-public-key)");
+        }
+        return promote(current.staged().getKid());
+    }
+
+    /**
+     * Idempotent form of {@link #rotate()} used when a peer instance has rotated: promotes the
+     * staged key only if it is the one identified by {@code kid}.
+     */
+    public synchronized SigningKeyResponse promote(String kid) {
+        Keyring current = keyring;
+        if (current.active().getKid().equals(kid)) {
+            return current.active();
+        }
+        if (current.staged() == null || !current.staged().getKid().equals(kid)) {
+            log.warn("Cannot promote signing key {}: it is not the staged key on this instance", kid);
+            return current.active();
+        }
+        keyring = new Keyring(current.staged(), null, current.keysByKid());
+        // Not persisted: promote the key in jwt.* configuration too, or a restart reverts to the old one
+        log.info("Token signing key rotated: {} -> {}", current.active().getKid(), kid);
+        return current.staged();
+    }
+
+    @EventListener
+    public void onInvalidation(InvalidationEventRequest event) {
+        if (event.getType() == InvalidationTypeEnum.SIGNING_KEY_ROTATED) {
+            event.getKeys().forEach(this::promote);
+        }
+    }
+
+    // Every asymmetric key in the ring, including the staged one so verifiers learn it before it signs
+    public List<Map<String, Object>> getPublicJwks() {
+        return keyring.keysByKid().values().stream()
+                .filter(key -> key.getPublicJwk() != null)
+                .<Map<String, Object>>map(key -> new LinkedHashMap<>(key.getPublicJwk()))
+                .toList();
+    }
+
+    private record Keyring(SigningKeyResponse active, SigningKeyResponse staged, Map<String, SigningKeyResponse> keysByKid) {
+    }
+
+    private static SigningKeyResponse hmacKey(String secret) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        return SigningKeyResponse.builder()
+                .kid(Jwks.builder().key(key).idFromThumbprint().build().getId())
+                .algorithm(HS256)
+                .signingKey(key)
+                .verificationKey(key)
+                .build();
+    }
+
+    private static SigningKeyResponse asymmetricKey(String algorithm, String privateKey, String publicKey) {
+        KeyPair keyPair = privateKey.isBlank() || publicKey.isBlank()
+                ? generateKeyPair(algorithm)
+                : decodeKeyPair(algorithm, privateKey, publicKey);
+        PublicJwk<?> jwk = publicJwk(keyPair.getPublic(), algorithm);
+        return SigningKeyResponse.builder()
+                .kid(jwk.getId())
+                .algorithm(algorithm)
+                .signingKey(keyPair.getPrivate())
+                .verificationKey(keyPair.getPublic())
+                .publicJwk(jwk)
+                .build();
+    }
+
+    private static SigningKeyResponse verificationOnlyKey(String publicKey) {
+        PublicKey key = decodePublicKey(publicKey);
+        String algorithm = "EC".equals(key.getAlgorithm()) ? ES256 : EDDSA;
+        PublicJwk<?> jwk = publicJwk(key, algorithm);
+        return SigningKeyResponse.builder()
+                .kid(jwk.getId())
+                .algorithm(algorithm)
+                .verificationKey(key)
+                .publicJwk(jwk)
+                .build();
+    }
+
+    private static PublicJwk<?> publicJwk(PublicKey key, String algorithm) {
+        return Jwks.builder()
+                .key(key)
+                .algorithm(algorithm)
+                .idFromThumbprint()
+                .build();
+    }
+
+    private static KeyPair decodeKeyPair(String algorithm, String privateKey, String publicKey) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm(algorithm));
+            PrivateKey priv = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(privateKey)));
+            PublicKey pub = keyFactory.generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(publicKey)));
+            return new KeyPair(pub, priv);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid " + algorithm + " key pair in jwt configuration", e);
+        }
+    }
+
+    // Verify-only keys may come from a previous algorithm, so try each supported key type
+    private static PublicKey decodePublicKey(String publicKey) {
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(Decoders.BASE64.decode(publicKey));
+        for (String type : List.of("EC", "Ed25519")) {
+            try {
+                return KeyFactory.getInstance(type).generatePublic(spec);
+            } catch (GeneralSecurityException ignored) {
+                // try the next key type
+            }
+        }
+        throw new IllegalStateException("Unsupported public key in jwt.verify-public-keys");
+    }
+
+    private static KeyPair generateKeyPair(String algorithm) {
+        log.warn("No key pair configured for {}; generating an ephemeral one. Tokens will not survive a restart.", algorithm);
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(keyFactoryAlgorithm(algorithm));
+            if (ES256.equals(algorithm)) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate " + algorithm + " key pair", e);
+        }
+    }
+
+    private static String keyFactoryAlgorithm(String algorithm) {
+        return switch (algorithm) {
+            case ES256 -> "EC";
+            case EDDSA -> "Ed25519";
+            default -> throw new IllegalArgumentException("Unsupported jwt.algorithm: " + algorithm);
+        };
+    }
+}
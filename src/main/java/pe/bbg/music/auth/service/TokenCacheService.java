@@ -0,0 +1,79 @@
+package pe.bbg.music.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Caches the result of signature verification keyed by the SHA-256 digest of the token,
+ * so repeat tokens skip HMAC verification and JSON parsing. Entries never outlive the
+ * token's own {@code exp}; invalid tokens are never cached.
+ */
+@Service
+public class TokenCacheService {
+
+    private final JwtService jwtService;
+    private final Cache<String, TokenClaimsResponse> verifiedTokens;
+
+    public TokenCacheService(
+            JwtService jwtService,
+            MeterRegistry meterRegistry,
+            @Value("${auth.cache.tokens.maximum-size:50000}") long maximumSize,
+            @Value("${auth.cache.tokens.max-ttl:300000}") long maxTtl
+    ) {
+        this.jwtService = jwtService;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry(Duration.ofMillis(maxTtl).toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "tokens.verified");
+    }
+
+    public TokenClaimsResponse verify(String token) {
+        return verifiedTokens.get(digest(token), key -> jwtService.parseToken(token));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record TokenExpiry(long maxTtlNanos) implements Expiry<String, TokenClaimsResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenClaimsResponse claims, long currentTime) {
+            if (claims.getExpiration() == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = Duration.between(Instant.now(), claims.getExpiration()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenClaimsResponse claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenClaimsResponse claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
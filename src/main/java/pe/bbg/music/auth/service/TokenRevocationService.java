@@ -0,0 +1,268 @@
+package pe.bbg.music.auth.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory access-token denylist, keyed by token id ({@code jti}) and by
+ * "all tokens of a user issued before T". A Bloom filter sits in front of the exact maps so
+ * the common, non-revoked path is a few hash probes with no map lookup. Entries are pruned
+ * once every token they could match has expired, and the filter is rebuilt from what remains.
+ * <p>
+ * The maps are a view of {@code tbl_token_revocation}. {@link #revoke} writes the row before
+ * publishing the event, every instance loads the table at startup, re-reads it when the bus
+ * reports a reconnect ({@code RESYNC}) and polls it every {@code auth.revocation.sync-interval}
+ * ms. A notification that never arrives therefore delays a revocation by at most one poll.
+ */
+@Service
+@Lazy(false)
+@Slf4j
+public class TokenRevocationService {
+
+    private static final char TOKEN_KEY = 'j';
+    private static final char USER_KEY = 'u';
+
+    private static final String DB_NOW_MILLIS = "(extract(epoch from clock_timestamp()) * 1000)::bigint";
+    private static final String UPSERT_SQL = "INSERT INTO tbl_token_revocation "
+            + "(kind, revoked_key, at_millis, expires_at_millis, updated_at_millis) VALUES (?, ?, ?, ?, " + DB_NOW_MILLIS + ") "
+            + "ON CONFLICT (kind, revoked_key) DO UPDATE SET "
+            + "at_millis = GREATEST(tbl_token_revocation.at_millis, EXCLUDED.at_millis), "
+            + "expires_at_millis = GREATEST(tbl_token_revocation.expires_at_millis, EXCLUDED.expires_at_millis), "
+            + "updated_at_millis = EXCLUDED.updated_at_millis";
+    private static final String DB_NOW_SQL = "SELECT " + DB_NOW_MILLIS;
+    private static final String SYNC_SQL = "SELECT kind, revoked_key, at_millis FROM tbl_token_revocation "
+            + "WHERE updated_at_millis >= ? AND expires_at_millis > ?";
+    private static final String PRUNE_SQL = "DELETE FROM tbl_token_revocation WHERE expires_at_millis < ?";
+    // Re-read rows written this long before the previous poll, covering statements still in flight then
+    private static final long SYNC_OVERLAP_MILLIS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InvalidationBusService invalidationBusService;
+
+    private final long accessTokenLifetime;
+    private final int expectedEntries;
+
+    // jti -> token expiry (epoch millis)
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // userId -> cutoff (epoch millis); tokens issued strictly before it are revoked
+    private final Map<UUID, Long> userCutoffs = new ConcurrentHashMap<>();
+    // Serializes writers and filter rebuilds; readers never lock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile BloomFilter bloomFilter;
+    // Database time of the last completed poll; 0 until the initial full load
+    private long syncedUntil;
+
+    public TokenRevocationService(
+            JdbcTemplate jdbcTemplate,
+            InvalidationBusService invalidationBusService,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.expiration}") long accessTokenLifetime,
+            @Value("${auth.revocation.bloom.expected-entries:100000}") int expectedEntries
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.invalidationBusService = invalidationBusService;
+        this.accessTokenLifetime = accessTokenLifetime;
+        this.expectedEntries = expectedEntries;
+        this.bloomFilter = new BloomFilter(expectedEntries);
+        Gauge.builder("auth.revocation.entries", revokedTokens, Map::size)
+                .tag("type", "token")
+                .register(meterRegistry);
+        Gauge.builder("auth.revocation.entries", userCutoffs, Map::size)
+                .tag("type", "user")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(TokenClaimsResponse claims) {
+        BloomFilter filter = bloomFilter;
+        if (claims.getTokenId() != null
+                && filter.mightContain(TOKEN_KEY, claims.getTokenId())
+                && revokedTokens.containsKey(claims.getTokenId())) {
+            return true;
+        }
+        if (claims.getUserId() != null && filter.mightContain(USER_KEY, claims.getUserId().toString())) {
+            Long cutoff = userCutoffs.get(claims.getUserId());
+            return cutoff != null
+                    && claims.getIssuedAt() != null
+                    && claims.getIssuedAt().toEpochMilli() < cutoff;
+        }
+        return false;
+    }
+
+    /**
+     * Records a {@code TOKEN_REVOKED} or {@code USER_TOKENS_REVOKED} event in
+     * {@code tbl_token_revocation}, then publishes it so every instance applies it at once.
+     */
+    public void revoke(InvalidationEventRequest event) {
+        char kind = switch (event.getType()) {
+            case TOKEN_REVOKED -> TOKEN_KEY;
+            case USER_TOKENS_REVOKED -> USER_KEY;
+            default -> throw new IllegalArgumentException("Not a revocation event: " + event.getType());
+        };
+        // A user cutoff matters until the last token issued before it has expired
+        long expiresAt = kind == TOKEN_KEY ? event.getAt() : event.getAt() + accessTokenLifetime;
+        List<Object[]> batchArgs = event.getKeys().stream()
+                .map(key -> new Object[]{String.valueOf(kind), key, event.getAt(), expiresAt})
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+        invalidationBusService.publish(event);
+    }
+
+    public void revokeToken(String tokenId, Instant expiresAt) {
+        if (tokenId == null || expiresAt == null || expiresAt.isBefore(Instant.now())) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            revokedTokens.put(tokenId, expiresAt.toEpochMilli());
+            bloomFilter.put(TOKEN_KEY, tokenId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void revokeUserTokensIssuedBefore(UUID userId, Instant cutoff) {
+        writeLock.lock();
+        try {
+            userCutoffs.merge(userId, cutoff.toEpochMilli(), Math::max);
+            bloomFilter.put(USER_KEY, userId.toString());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Revocations reach every instance through the invalidation bus
+    @EventListener
+    public void onInvalidation(InvalidationEventRequest event) {
+        Instant at = Instant.ofEpochMilli(event.getAt());
+        switch (event.getType()) {
+            case TOKEN_REVOKED -> event.getKeys().forEach(tokenId -> revokeToken(tokenId, at));
+            case USER_TOKENS_REVOKED -> event.getKeys().forEach(userId -> revokeUserTokensIssuedBefore(UUID.fromString(userId), at));
+            case RESYNC -> syncFromStore();
+            default -> {
+            }
+        }
+    }
+
+    @PostConstruct
+    public void loadFromStore() {
+        syncFromStore();
+        log.info("Loaded {} token and {} user revocations", revokedTokens.size(), userCutoffs.size());
+    }
+
+    // Picks up rows written by other instances whose notification was lost
+    @Scheduled(fixedDelayString = "${auth.revocation.sync-interval:30000}", initialDelayString = "${auth.revocation.sync-interval:30000}")
+    public synchronized void syncFromStore() {
+        long dbNow = jdbcTemplate.queryForObject(DB_NOW_SQL, Long.class);
+        long since = syncedUntil == 0 ? 0 : syncedUntil - SYNC_OVERLAP_MILLIS;
+        jdbcTemplate.query(SYNC_SQL, rs -> {
+            Instant at = Instant.ofEpochMilli(rs.getLong("at_millis"));
+            String key = rs.getString("revoked_key");
+            if (rs.getString("kind").charAt(0) == TOKEN_KEY) {
+                revokeToken(key, at);
+            } else {
+                revokeUserTokensIssuedBefore(UUID.fromString(key), at);
+            }
+        }, since, System.currentTimeMillis());
+        syncedUntil = dbNow;
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.prune-interval:60000}")
+    public void pruneExpired() {
+        long nowMillis = System.currentTimeMillis();
+        jdbcTemplate.update(PRUNE_SQL, nowMillis);
+        // A user cutoff can only match tokens issued before it, which expire within one access-token lifetime
+        long oldestRelevantCutoff = nowMillis - accessTokenLifetime;
+        writeLock.lock();
+        try {
+            int before = revokedTokens.size() + userCutoffs.size();
+            revokedTokens.values().removeIf(expiresAt -> expiresAt < nowMillis);
+            userCutoffs.values().removeIf(cutoff -> cutoff < oldestRelevantCutoff);
+            int after = revokedTokens.size() + userCutoffs.size();
+            if (after == before) {
+                return;
+            }
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, after * 2));
+            revokedTokens.keySet().forEach(tokenId -> rebuilt.put(TOKEN_KEY, tokenId));
+            userCutoffs.keySet().forEach(userId -> rebuilt.put(USER_KEY, userId.toString()));
+            bloomFilter = rebuilt;
+            log.debug("Pruned {} expired revocation entries", before - after);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter sized for a 1% false-positive rate, using double hashing over a
+     * 64-bit FNV-1a hash. Supports insertion only; deletion is done by rebuilding.
+     */
+    private static final class BloomFilter {
+
+        private static final int HASH_FUNCTIONS = 7;
+        private static final int BITS_PER_ENTRY = 10;
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+
+        BloomFilter(int expectedEntries) {
+            int words = Math.max(1, (expectedEntries * BITS_PER_ENTRY + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+        }
+
+        void put(char kind, String value) {
+            long hash = hash(kind, value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(char kind, String value) {
+            long hash = hash(kind, value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // The kind character keeps token ids and user ids in separate key spaces
+        private static long hash(char kind, String value) {
+            long hash = (0xcbf29ce484222325L ^ kind) * 0x100000001b3L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
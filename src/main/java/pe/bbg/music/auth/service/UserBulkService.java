@@ -0,0 +1,159 @@
+package pe.bbg.music.auth.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.bbg.music.auth.dto.BulkItemResultResponse;
+import pe.bbg.music.auth.dto.BulkUserChangeRequest;
+import pe.bbg.music.auth.dto.BulkUserChangeResponse;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.enums.BulkItemStatusEnum;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Applies role / subscription-tier changes for many users from a streamed JSON array or NDJSON body.
+ * Items are read one at a time and written in JDBC batches of {@code auth.bulk.chunk-size}, one
+ * transaction per chunk. Cache and token invalidations are published once per chunk.
+ */
+@Service
+@Slf4j
+public class UserBulkService {
+
+    // A null parameter keeps the current value, so one statement covers role, tier or both
+    private static final String UPDATE_SQL = "UPDATE tbl_user SET role = COALESCE(?, role), "
+            + "subscription_tier = COALESCE(?, subscription_tier), updated_at = ?, updated_by = ? WHERE id = ?";
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidationBusService invalidationBusService;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuditorAware<String> auditorProvider;
+    private final int chunkSize;
+
+    public UserBulkService(
+            ObjectMapper objectMapper,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            InvalidationBusService invalidationBusService,
+            TokenRevocationService tokenRevocationService,
+            AuditorAware<String> auditorProvider,
+            @Value("${auth.bulk.chunk-size:1000}") int chunkSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.invalidationBusService = invalidationBusService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.auditorProvider = auditorProvider;
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkUserChangeResponse applyChanges(InputStream body) throws IOException {
+        String updatedBy = auditorProvider.getCurrentAuditor().orElse("SYSTEM");
+        List<BulkItemResultResponse> results = new ArrayList<>();
+        List<IndexedChange> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        // readValues iterates a top-level array element by element, or a whitespace-separated (NDJSON) sequence
+        try (MappingIterator<BulkUserChangeRequest> items = objectMapper.readerFor(BulkUserChangeRequest.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                int current = index++;
+                BulkUserChangeRequest item;
+                try {
+                    item = items.nextValue();
+                } catch (JsonMappingException e) {
+                    // The iterator resyncs to the next value, so one bad item does not stop the stream
+                    results.add(result(current, null, BulkItemStatusEnum.INVALID, "Unreadable item: " + e.getOriginalMessage()));
+                    continue;
+                }
+                if (item.getUserId() == null || (item.getNewRole() == null && item.getNewTier() == null)) {
+                    results.add(result(current, item.getUserId(), BulkItemStatusEnum.INVALID, "userId and newRole or newTier are required"));
+                    continue;
+                }
+                chunk.add(new IndexedChange(current, item));
+                if (chunk.size() == chunkSize) {
+                    applyChunk(chunk, updatedBy, results);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonParseException e) {
+            results.add(result(index, null, BulkItemStatusEnum.INVALID, "Malformed input, remaining items were not read"));
+        }
+        if (!chunk.isEmpty()) {
+            applyChunk(chunk, updatedBy, results);
+        }
+        results.sort(Comparator.comparingInt(BulkItemResultResponse::getIndex));
+        return BulkUserChangeResponse.builder()
+                .total(results.size())
+                .updated(count(results, BulkItemStatusEnum.UPDATED))
+                .notFound(count(results, BulkItemStatusEnum.NOT_FOUND))
+                .invalid(count(results, BulkItemStatusEnum.INVALID))
+                .results(results)
+                .build();
+    }
+
+    private void applyChunk(List<IndexedChange> chunk, String updatedBy, List<BulkItemResultResponse> results) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = chunk.stream()
+                .map(change -> new Object[]{
+                        new SqlParameterValue(Types.VARCHAR, change.item().getNewRole() != null ? change.item().getNewRole().name() : null),
+                        new SqlParameterValue(Types.VARCHAR, change.item().getNewTier() != null ? change.item().getNewTier().name() : null),
+                        now,
+                        updatedBy,
+                        change.item().getUserId()
+                })
+                .toList();
+        int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batchArgs));
+
+        List<UUID> updatedIds = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            UUID userId = chunk.get(i).item().getUserId();
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                updatedIds.add(userId);
+                results.add(result(chunk.get(i).index(), userId, BulkItemStatusEnum.UPDATED, null));
+            } else {
+                results.add(result(chunk.get(i).index(), userId, BulkItemStatusEnum.NOT_FOUND, "User not found"));
+            }
+        }
+        if (!updatedIds.isEmpty()) {
+            invalidationBusService.publish(InvalidationEventRequest.userChanged(updatedIds));
+            tokenRevocationService.revoke(InvalidationEventRequest.userTokensRevoked(updatedIds, Instant.now()));
+        }
+        log.debug("Bulk change chunk applied: {} updated of {}", updatedIds.size(), chunk.size());
+    }
+
+    private static BulkItemResultResponse result(int index, UUID userId, BulkItemStatusEnum status, String reason) {
+        return BulkItemResultResponse.builder()
+                .index(index)
+                .userId(userId)
+                .status(status)
+                .reason(reason)
+                .build();
+    }
+
+    private static int count(List<BulkItemResultResponse> results, BulkItemStatusEnum status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+
+    private record IndexedChange(int index, BulkUserChangeRequest item) {
+    }
+}
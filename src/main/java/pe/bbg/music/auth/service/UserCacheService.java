@@ -0,0 +1,190 @@
+package pe.bbg.music.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.dto.enums.InvalidationTypeEnum;
+import pe.bbg.music.auth.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded, TTL-based cache of user principals in front of {@link UserRepository}, keyed by username and by id.
+ * Username keys are lower-cased, matching the case-insensitive repository lookups, so every
+ * spelling of a username resolves to the same entry.
+ * Entries are read-only {@link UserPrincipalResponse} records rather than managed entities.
+ * Write paths publish a {@code USER_CHANGED} {@link InvalidationEventRequest} after persisting, which
+ * evicts the user here and on every peer instance.
+ * An id to username-key index lets those evictions find the username entry without scanning the cache.
+ * Hit/miss/eviction stats are published as the {@code cache.*} meters.
+ */
+@Service
+public class UserCacheService {
+
+    private final UserRepository repository;
+    private final Cache<String, UserPrincipalResponse> usersByUsername;
+    private final Cache<UUID, UserPrincipalResponse> usersById;
+    private final Map<UUID, String> usernameKeysById = new ConcurrentHashMap<>();
+    // Bumped before every eviction; a load that overlaps one is not kept (see cacheIfCurrent)
+    private final AtomicLong evictions = new AtomicLong();
+
+    public UserCacheService(
+            UserRepository repository,
+            MeterRegistry meterRegistry,
+            @Value("${auth.cache.users.maximum-size:10000}") long maximumSize,
+            @Value("${auth.cache.users.ttl:300000}") long ttl
+    ) {
+        this.repository = repository;
+        this.usersByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                // Size and TTL evictions drop the index entry too, unless the user was re-cached under another key
+                .evictionListener((String key, UserPrincipalResponse user, RemovalCause cause) ->
+                        usernameKeysById.remove(user.id(), key))
+                .recordStats()
+                .build();
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByUsername, "users.by-username");
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.by-id");
+    }
+
+    // Loads run outside Caffeine's compute so a blocking query never holds a monitor (virtual-thread pinning)
+    public Optional<UserPrincipalResponse> findByUsername(String username) {
+        UserPrincipalResponse cached = usersByUsername.getIfPresent(key(username));
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = evictions.get();
+        return repository.findPrincipalByUsername(username).map(user -> cacheIfCurrent(user, generation));
+    }
+
+    // Cache-only lookup, never a query (e.g. for bookkeeping right after the user was loaded)
+    public Optional<UserPrincipalResponse> findCachedByUsername(String username) {
+        return Optional.ofNullable(usersByUsername.getIfPresent(key(username)));
+    }
+
+    /**
+     * Resolves many users at once; all cache misses are coalesced into a single
+     * {@code findAllPrincipalsByUsernameIn} query. The result is keyed by the usernames as given;
+     * unknown usernames are absent from it.
+     */
+    public Map<String, UserPrincipalResponse> findAllByUsername(Collection<String> usernames) {
+        Set<String> keys = usernames.stream().map(UserCacheService::key).collect(Collectors.toSet());
+        Map<String, UserPrincipalResponse> byKey = new HashMap<>(usersByUsername.getAllPresent(keys));
+        List<String> missing = keys.stream().filter(key -> !byKey.containsKey(key)).toList();
+        if (!missing.isEmpty()) {
+            long generation = evictions.get();
+            for (UserPrincipalResponse user : repository.findAllPrincipalsByUsernameIn(missing)) {
+                byKey.put(key(user.username()), cacheIfCurrent(user, generation));
+            }
+        }
+        Map<String, UserPrincipalResponse> result = new HashMap<>();
+        for (String username : usernames) {
+            UserPrincipalResponse user = byKey.get(key(username));
+            if (user != null) {
+                result.put(username, user);
+            }
+        }
+        return result;
+    }
+
+    public Optional<UserPrincipalResponse> findById(UUID id) {
+        UserPrincipalResponse cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long generation = evictions.get();
+        return repository.findPrincipalById(id).map(user -> cacheIfCurrent(user, generation));
+    }
+
+    public void put(UserPrincipalResponse user) {
+        usersByUsername.put(key(index(user).username()), user);
+    }
+
+    public void evictByIds(Set<UUID> ids) {
+        evictions.incrementAndGet();
+        usersById.invalidateAll(ids);
+        for (UUID id : ids) {
+            String key = usernameKeysById.remove(id);
+            if (key != null) {
+                usersByUsername.invalidate(key);
+            }
+        }
+    }
+
+    public void evictAll() {
+        evictions.incrementAndGet();
+        usersByUsername.invalidateAll();
+        usersById.invalidateAll();
+        usernameKeysById.clear();
+    }
+
+    @EventListener
+    public void onInvalidation(InvalidationEventRequest event) {
+        if (event.getType() == InvalidationTypeEnum.USER_CHANGED) {
+            evictByIds(event.getKeys().stream()
+                    .map(UUID::fromString)
+                    .collect(Collectors.toSet()));
+        } else if (event.getType() == InvalidationTypeEnum.RESYNC) {
+            // USER_CHANGED events may have been missed while the bus was disconnected
+            evictAll();
+        }
+    }
+
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    // Caches the user by id and records its username key; a renamed user's previous key is dropped
+    private UserPrincipalResponse index(UserPrincipalResponse user) {
+        String key = key(user.username());
+        String previous = usernameKeysById.put(user.id(), key);
+        if (previous != null && !previous.equals(key)) {
+            usersByUsername.invalidate(previous);
+        }
+        usersById.put(user.id(), user);
+        return user;
+    }
+
+    /**
+     * Caches a user read from the database when no eviction started since {@code generation} was
+     * taken before the read. An eviction that starts after the put removes the entry itself; one
+     * that started in between is seen by the second check, and the entry is taken back out.
+     * Either way a row read before an update is never left in the cache.
+     */
+    private UserPrincipalResponse cacheIfCurrent(UserPrincipalResponse user, long generation) {
+        if (evictions.get() != generation) {
+            return user;
+        }
+        String key = key(user.username());
+        put(user);
+        if (evictions.get() != generation) {
+            usersByUsername.asMap().remove(key, user);
+            usersById.asMap().remove(user.id(), user);
+            usernameKeysById.remove(user.id(), key);
+        }
+        return user;
+    }
+}
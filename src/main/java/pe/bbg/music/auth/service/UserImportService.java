@@ -0,0 +1,388 @@
+package pe.bbg.music.auth.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.SqlParameterValue;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.bbg.music.auth.dto.UserImportRequest;
+import pe.bbg.music.auth.dto.UserImportResponse;
+import pe.bbg.music.auth.entity.UserImportEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserImportStatusEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.repository.UserImportRepository;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.regex.Pattern;
+
+/**
+ * Streams users from NDJSON or CSV into {@code tbl_user}. Records are processed in chunks of
+ * {@code auth.bulk.chunk-size}: plaintext passwords are hashed in parallel on a dedicated
+ * {@link ForkJoinPool}, then the chunk is written with one batched {@code INSERT ... ON CONFLICT DO NOTHING}
+ * (rewritten into multi-row inserts by {@code reWriteBatchedInserts}). Progress is committed in the same
+ * transaction as the chunk, so a failed import can be resumed by posting the same input with its id.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final String INSERT_SQL = "INSERT INTO tbl_user (id, username, password, email, role, avatar_url, "
+            + "country, subscription_tier, created_by, created_at, updated_by, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+    // Rewritten batches report SUCCESS_NO_INFO per row, so inserted rows are counted by the ids we generated
+    private static final String COUNT_INSERTED_SQL = "SELECT count(*) FROM tbl_user WHERE id = ANY(?)";
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}");
+    private static final Pattern PBKDF2_HASH = Pattern.compile("\\{pbkdf2@SpringSecurity_v5_8}[0-9a-f]+");
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserImportRepository userImportRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final AuditorAware<String> auditorProvider;
+    private final int chunkSize;
+    private final long staleAfter;
+    private final ForkJoinPool hashingPool;
+
+    public UserImportService(
+            ObjectMapper objectMapper,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            UserImportRepository userImportRepository,
+            PasswordEncoder passwordEncoder,
+            AuditorAware<String> auditorProvider,
+            @Value("${auth.bulk.chunk-size:1000}") int chunkSize,
+            @Value("${auth.import.parallelism:0}") int parallelism,
+            @Value("${auth.import.stale-after:60000}") long staleAfter
+    ) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userImportRepository = userImportRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.auditorProvider = auditorProvider;
+        this.chunkSize = chunkSize;
+        this.staleAfter = staleAfter;
+        // Separate from the login hashing pool so an import never queues behind (or blocks) logins
+        this.hashingPool = new ForkJoinPool(
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                pool -> {
+                    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("user-import-" + thread.getPoolIndex());
+                    return thread;
+                },
+                null,
+                false
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    /**
+     * Imports the given stream. With {@code importId} the import resumes after the records that
+     * run already committed; the input must be the same file.
+     */
+    public UserImportResponse importUsers(InputStream body, boolean csv, UUID importId) throws IOException {
+        UserImportEntity job = importId == null ? start() : resume(importId);
+        String createdBy = auditorProvider.getCurrentAuditor().orElse("SYSTEM");
+        try (RecordReader reader = csv ? new CsvRecordReader(body) : new JsonRecordReader(body)) {
+            long position = 0;
+            while (position < job.getProcessed() && reader.next(position) != null) {
+                position++;
+            }
+            List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+            ImportRecord record;
+            while ((record = reader.next(position++)) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    applyChunk(job.getId(), chunk, createdBy);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                applyChunk(job.getId(), chunk, createdBy);
+            }
+            userImportRepository.finish(job.getId(), UserImportStatusEnum.COMPLETED, null, LocalDateTime.now());
+        } catch (IOException | RuntimeException e) {
+            userImportRepository.finish(job.getId(), UserImportStatusEnum.FAILED, truncate(e.getMessage()), LocalDateTime.now());
+            log.warn("User import {} failed; resume it with importId={}", job.getId(), job.getId(), e);
+            throw e;
+        }
+        return getProgress(job.getId());
+    }
+
+    public UserImportResponse getProgress(UUID importId) {
+        return userImportRepository.findById(importId)
+                .map(UserImportService::mapToResponse)
+                .orElseThrow(() -> new IllegalArgumentException("Import not found"));
+    }
+
+    private UserImportEntity start() {
+        return userImportRepository.save(UserImportEntity.builder()
+                .status(UserImportStatusEnum.RUNNING)
+                .build());
+    }
+
+    private UserImportEntity resume(UUID importId) {
+        LocalDateTime now = LocalDateTime.now();
+        if (userImportRepository.claim(importId, now, now.minus(Duration.ofMillis(staleAfter))) == 0) {
+            throw new IllegalArgumentException("Import not found or still running");
+        }
+        return userImportRepository.findById(importId)
+                .orElseThrow(() -> new IllegalArgumentException("Import not found"));
+    }
+
+    private void applyChunk(UUID importId, List<ImportRecord> chunk, String createdBy) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // BCrypt dominates the cost of a chunk; the parallel stream runs on hashingPool, not the common pool
+        List<PreparedUser> prepared = hashingPool.submit(() -> chunk.parallelStream()
+                        .map(this::prepare)
+                        .toList())
+                .join();
+
+        List<UUID> ids = new ArrayList<>(prepared.size());
+        List<Object[]> rows = new ArrayList<>(prepared.size());
+        long failed = 0;
+        String lastError = null;
+        for (PreparedUser user : prepared) {
+            if (user.error() != null) {
+                failed++;
+                lastError = "Record " + user.position() + ": " + user.error();
+                continue;
+            }
+            ids.add(user.id());
+            rows.add(user.row(createdBy, now));
+        }
+        long rejected = failed;
+        String error = lastError;
+        transactionTemplate.executeWithoutResult(status -> {
+            long imported = 0;
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+                imported = countInserted(ids);
+            }
+            userImportRepository.addProgress(importId, chunk.size(), imported, rows.size() - imported,
+                    rejected, truncate(error), now.toLocalDateTime());
+        });
+    }
+
+    private long countInserted(List<UUID> ids) {
+        Long count = jdbcTemplate.query(COUNT_INSERTED_SQL,
+                statement -> statement.setArray(1, statement.getConnection().createArrayOf("uuid", ids.toArray())),
+                resultSet -> resultSet.next() ? resultSet.getLong(1) : 0L);
+        return count != null ? count : 0L;
+    }
+
+    private PreparedUser prepare(ImportRecord record) {
+        if (record.error() != null) {
+            return PreparedUser.failed(record.position(), record.error());
+        }
+        UserImportRequest item = record.item();
+        if (item.getUsername() == null || item.getUsername().isBlank()) {
+            return PreparedUser.failed(record.position(), "username is required");
+        }
+        String password;
+        if (item.getPasswordHash() != null) {
+            password = acceptHash(item.getPasswordHash());
+            if (password == null) {
+                return PreparedUser.failed(record.position(), "Unsupported password hash format");
+            }
+        } else if (item.getPassword() != null && !item.getPassword().isEmpty()) {
+            password = passwordEncoder.encode(item.getPassword());
+        } else {
+            return PreparedUser.failed(record.position(), "password or passwordHash is required");
+        }
+        return new PreparedUser(record.position(), UUID.randomUUID(), item, password, null);
+    }
+
+    // Only formats the DelegatingPasswordEncoder can verify; bare BCrypt is its default for unprefixed hashes
+    private static String acceptHash(String hash) {
+        if (hash.startsWith(BCRYPT_PREFIX) && BCRYPT_HASH.matcher(hash.substring(BCRYPT_PREFIX.length())).matches()) {
+            return hash;
+        }
+        if (BCRYPT_HASH.matcher(hash).matches() || PBKDF2_HASH.matcher(hash).matches()) {
+            return hash;
+        }
+        return null;
+    }
+
+    private static String truncate(String message) {
+        return message != null && message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+
+    private static UserImportResponse mapToResponse(UserImportEntity job) {
+        return UserImportResponse.builder()
+                .importId(job.getId())
+                .status(job.getStatus())
+                .processed(job.getProcessed())
+                .imported(job.getImported())
+                .skipped(job.getSkipped())
+                .failed(job.getFailed())
+                .lastError(job.getLastError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+
+    private record ImportRecord(long position, UserImportRequest item, String error) {
+    }
+
+    private record PreparedUser(long position, UUID id, UserImportRequest item, String password, String error) {
+
+        static PreparedUser failed(long position, String error) {
+            return new PreparedUser(position, null, null, null, error);
+        }
+
+        Object[] row(String createdBy, Timestamp now) {
+            UserRoleEnum role = item.getRole() != null ? item.getRole() : UserRoleEnum.USER;
+            SubscriptionTierEnum tier = item.getSubscriptionTier() != null ? item.getSubscriptionTier() : SubscriptionTierEnum.FREE;
+            String avatarUrl = item.getAvatarUrl() != null
+                    ? item.getAvatarUrl()
+                    : "https://ui-avatars.com/api/?name=" + item.getUsername(); // Same placeholder as register
+            return new Object[]{
+                    id,
+                    item.getUsername(),
+                    password,
+                    new SqlParameterValue(Types.VARCHAR, item.getEmail()),
+                    role.name(),
+                    avatarUrl,
+                    new SqlParameterValue(Types.VARCHAR, item.getCountry()),
+                    tier.name(),
+                    createdBy,
+                    now,
+                    createdBy,
+                    now
+            };
+        }
+    }
+
+    private interface RecordReader extends Closeable {
+
+        // Next record at the given position, or null at the end of the input
+        ImportRecord next(long position) throws IOException;
+    }
+
+    private final class JsonRecordReader implements RecordReader {
+
+        private final MappingIterator<UserImportRequest> items;
+
+        JsonRecordReader(InputStream body) throws IOException {
+            this.items = objectMapper.readerFor(UserImportRequest.class).readValues(body);
+        }
+
+        @Override
+        public ImportRecord next(long position) throws IOException {
+            if (!items.hasNextValue()) {
+                return null;
+            }
+            try {
+                return new ImportRecord(position, items.nextValue(), null);
+            } catch (JsonMappingException e) {
+                return new ImportRecord(position, null, "Unreadable record: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            items.close();
+        }
+    }
+
+    // Header row with UserImportRequest field names; quoted fields may contain commas and "" escapes
+    private final class CsvRecordReader implements RecordReader {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+
+        CsvRecordReader(InputStream body) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            String headerLine = reader.readLine();
+            this.header = headerLine != null ? parseLine(headerLine) : List.of();
+        }
+
+        @Override
+        public ImportRecord next(long position) throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            List<String> values = parseLine(line);
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < Math.min(header.size(), values.size()); i++) {
+                if (!values.get(i).isEmpty()) {
+                    fields.put(header.get(i).trim(), values.get(i));
+                }
+            }
+            try {
+                return new ImportRecord(position, objectMapper.convertValue(fields, UserImportRequest.class), null);
+            } catch (IllegalArgumentException e) {
+                return new ImportRecord(position, null, "Unreadable record: " + e.getMessage());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+
+        private static List<String> parseLine(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+}
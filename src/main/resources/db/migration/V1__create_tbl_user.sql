@@ -0,0 +1,19 @@
+-- Users. IF NOT EXISTS lets databases previously created by ddl-auto be baselined in place.
+CREATE TABLE IF NOT EXISTS tbl_user (
+    id                UUID         NOT NULL PRIMARY KEY,
+    username          VARCHAR(255) NOT NULL,
+    password          VARCHAR(255),
+    email             VARCHAR(255),
+    role              VARCHAR(255),
+    avatar_url        VARCHAR(255),
+    country           VARCHAR(255),
+    subscription_tier VARCHAR(255),
+    created_by        VARCHAR(255),
+    created_at        TIMESTAMP(6),
+    updated_by        VARCHAR(255),
+    updated_at        TIMESTAMP(6)
+);
+
+-- Case-insensitive uniqueness; also serves every lookup by username/email (see UserRepository)
+CREATE UNIQUE INDEX IF NOT EXISTS ux_user_username_lower ON tbl_user (lower(username));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_user_email_lower ON tbl_user (lower(email));
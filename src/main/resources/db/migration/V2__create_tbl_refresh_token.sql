@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS tbl_refresh_token (
+    id          UUID         NOT NULL PRIMARY KEY,
+    token_hash  VARCHAR(64)  NOT NULL,
+    family_id   UUID         NOT NULL,
+    user_id     UUID         NOT NULL REFERENCES tbl_user (id) ON DELETE CASCADE,
+    expires_at  TIMESTAMP(6) NOT NULL,
+    used_at     TIMESTAMP(6),
+    revoked_at  TIMESTAMP(6),
+    created_by  VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    updated_by  VARCHAR(255),
+    updated_at  TIMESTAMP(6)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_refresh_token_token_hash ON tbl_refresh_token (token_hash);
+CREATE INDEX IF NOT EXISTS ix_refresh_token_family_id ON tbl_refresh_token (family_id);
+CREATE INDEX IF NOT EXISTS ix_refresh_token_user_id ON tbl_refresh_token (user_id);
+CREATE INDEX IF NOT EXISTS ix_refresh_token_expires_at ON tbl_refresh_token (expires_at);
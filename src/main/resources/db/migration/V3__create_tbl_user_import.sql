@@ -0,0 +1,14 @@
+-- Progress of bulk user imports; processed/imported/skipped/failed are committed together with each chunk
+CREATE TABLE IF NOT EXISTS tbl_user_import (
+    id          UUID          NOT NULL PRIMARY KEY,
+    status      VARCHAR(255)  NOT NULL,
+    processed   BIGINT        NOT NULL DEFAULT 0,
+    imported    BIGINT        NOT NULL DEFAULT 0,
+    skipped     BIGINT        NOT NULL DEFAULT 0,
+    failed      BIGINT        NOT NULL DEFAULT 0,
+    last_error  VARCHAR(1000),
+    created_by  VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    updated_by  VARCHAR(255),
+    updated_at  TIMESTAMP(6)
+);
@@ -0,0 +1,3 @@
+-- Failed-login lockout state, flushed in batches by LoginAttemptService
+ALTER TABLE tbl_user ADD COLUMN IF NOT EXISTS failed_attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE tbl_user ADD COLUMN IF NOT EXISTS locked_until TIMESTAMP(6);
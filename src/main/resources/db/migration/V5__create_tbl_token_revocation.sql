@@ -0,0 +1,14 @@
+-- Durable access-token revocations (TokenRevocationService): loaded at startup and polled for changes,
+-- so a restarted instance or a missed NOTIFY cannot accept a revoked token again. Times are epoch millis;
+-- updated_at_millis comes from the database clock so instances with skewed clocks poll consistently.
+CREATE TABLE IF NOT EXISTS tbl_token_revocation (
+    kind               CHAR(1)      NOT NULL,
+    revoked_key        VARCHAR(64)  NOT NULL,
+    at_millis          BIGINT       NOT NULL,
+    expires_at_millis  BIGINT       NOT NULL,
+    updated_at_millis  BIGINT       NOT NULL,
+    PRIMARY KEY (kind, revoked_key)
+);
+
+CREATE INDEX IF NOT EXISTS ix_token_revocation_updated_at ON tbl_token_revocation (updated_at_millis);
+CREATE INDEX IF NOT EXISTS ix_token_revocation_expires_at ON tbl_token_revocation (expires_at_millis);
@@ -0,0 +1,83 @@
+package pe.bbg.music.auth.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.dto.enums.TokenTypeEnum;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.service.JwtService;
+import pe.bbg.music.auth.service.SigningKeyService;
+import pe.bbg.music.auth.service.TokenCacheService;
+import pe.bbg.music.auth.service.TokenRevocationService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private final UserPrincipalResponse user = new UserPrincipalResponse(UUID.randomUUID(), "listener",
+            "{noop}secret", "listener@bbg.pe", UserRoleEnum.USER, null, "PE", SubscriptionTierEnum.FREE, 0, null);
+
+    private JwtService jwtService;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        SigningKeyService signingKeyService = new SigningKeyService(SigningKeyService.HS256, SECRET,
+                "", "", "", "", "", List.of(), List.of(), "", false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        jwtService = new JwtService(signingKeyService, meterRegistry, 900000, 604800000);
+        TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+        when(tokenRevocationService.isRevoked(any())).thenReturn(false);
+        UserDetailsService userDetailsService = username -> user;
+        filter = new JwtAuthenticationFilter(jwtService, new TokenCacheService(jwtService, meterRegistry, 100, 300000),
+                tokenRevocationService, userDetailsService, meterRegistry);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void accessTokenAuthenticatesTheRequest() throws Exception {
+        filter.doFilter(bearer(jwtService.generateToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(user);
+    }
+
+    @Test
+    void refreshTokenIsRejectedAsBearerToken() throws Exception {
+        String refreshToken = jwtService.generateRefreshToken(user, UUID.randomUUID().toString());
+        assertThat(jwtService.parseToken(refreshToken).getTokenType()).isEqualTo(TokenTypeEnum.REFRESH);
+
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(bearer(refreshToken), new MockHttpServletResponse(), chain);
+
+        // The chain still runs, unauthenticated, so protected routes answer 401
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/auth/me");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,40 @@
+package pe.bbg.music.auth.exception;
+
+import io.jsonwebtoken.UnsupportedJwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import pe.bbg.music.auth.config.EndpointMetricsInterceptor;
+import pe.bbg.music.auth.dto.ApiResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void rateLimitedLoginIs429WithRetryAfter() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        ResponseEntity<ApiResponse<Object>> response = handler.handleTooManyRequests(
+                new TooManyRequestsException("Too many login attempts. Please retry later.", 42), request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("42");
+        assertThat(request.getAttribute(EndpointMetricsInterceptor.OUTCOME_ATTRIBUTE)).isEqualTo("rate_limited");
+    }
+
+    @Test
+    void tokenSignedWithAnUnknownKeyIs401() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+
+        ResponseEntity<ApiResponse<Object>> response = handler.handleJwtExceptions(
+                new UnsupportedJwtException("Cannot verify JWS signature: unable to locate signature verification key"), request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(request.getAttribute(EndpointMetricsInterceptor.OUTCOME_ATTRIBUTE)).isEqualTo("invalid_token");
+    }
+}
@@ -0,0 +1,155 @@
+package pe.bbg.music.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.dto.enums.InvalidationTypeEnum;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LoginAttemptServiceTest {
+
+    private static final int MAX_FAILURES = 5;
+
+    private final UserPrincipalResponse user = new UserPrincipalResponse(UUID.randomUUID(), "admin", "{noop}secret",
+            "admin@bbg.pe", UserRoleEnum.ADMIN, null, "PE", SubscriptionTierEnum.PREMIUM, 0, null);
+
+    private UserRepository repository;
+    private JdbcTemplate jdbcTemplate;
+    private InvalidationBusService invalidationBusService;
+    private UserCacheService userCacheService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        invalidationBusService = mock(InvalidationBusService.class);
+        when(repository.findPrincipalByUsername(anyString())).thenReturn(Optional.empty());
+        // The repository matches usernames case-insensitively
+        for (String spelling : List.of("admin", "ADMIN", "Admin")) {
+            when(repository.findPrincipalByUsername(spelling)).thenReturn(Optional.of(user));
+        }
+        userCacheService = new UserCacheService(repository, new SimpleMeterRegistry(), 100, 300000);
+    }
+
+    @Test
+    void locksOnlyOnceMaxFailuresIsReached() {
+        LoginAttemptService service = newService(900000, 900000);
+
+        failLogin(service, "admin", MAX_FAILURES - 1);
+        assertThat(service.applyLockState(user).isAccountNonLocked()).isTrue();
+
+        failLogin(service, "admin", 1);
+        assertThat(service.applyLockState(user).isAccountNonLocked()).isFalse();
+    }
+
+    @Test
+    void caseVariantsOfTheUsernameCountTowardsTheSameLock() {
+        LoginAttemptService service = newService(900000, 900000);
+
+        failLogin(service, "ADMIN", 2);
+        failLogin(service, "Admin", 2);
+        failLogin(service, "admin", 1);
+
+        assertThat(service.applyLockState(user).isAccountNonLocked()).isFalse();
+    }
+
+    @Test
+    void successClearsTheFailureCount() {
+        LoginAttemptService service = newService(900000, 900000);
+
+        failLogin(service, "admin", MAX_FAILURES - 1);
+        service.recordSuccess(user);
+        failLogin(service, "admin", MAX_FAILURES - 1);
+
+        assertThat(service.applyLockState(user).isAccountNonLocked()).isTrue();
+    }
+
+    @Test
+    void failuresDecayAfterTheDecayWindow() throws InterruptedException {
+        LoginAttemptService service = newService(100, 100);
+
+        failLogin(service, "admin", MAX_FAILURES - 1);
+        Thread.sleep(300);
+        failLogin(service, "admin", 1);
+
+        assertThat(service.applyLockState(user).isAccountNonLocked()).isTrue();
+    }
+
+    @Test
+    void unknownUsernamesAreNotTracked() {
+        LoginAttemptService service = newService(900000, 900000);
+
+        failLogin(service, "ghost", MAX_FAILURES);
+        service.flush();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void flushWritesTheLatestStateOnceAndAnnouncesTheLock() {
+        LoginAttemptService service = newService(900000, 900000);
+        failLogin(service, "admin", MAX_FAILURES);
+
+        service.flush();
+        service.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE tbl_user SET failed_attempts = ?,"), rows.capture());
+        assertThat(rows.getValue()).hasSize(1);
+        assertThat(rows.getValue().getFirst()[0]).isEqualTo(MAX_FAILURES);
+        assertThat(rows.getValue().getFirst()[2]).isEqualTo(user.id());
+
+        ArgumentCaptor<InvalidationEventRequest> event = ArgumentCaptor.forClass(InvalidationEventRequest.class);
+        verify(invalidationBusService).publish(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(InvalidationTypeEnum.USER_CHANGED);
+        assertThat(event.getValue().getKeys()).containsExactly(user.id().toString());
+    }
+
+    @Test
+    void successOfAPreviouslyFailedUserFlushesAReset() {
+        LoginAttemptService service = newService(900000, 900000);
+
+        service.recordSuccess(user);
+        service.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+        failLogin(service, "admin", 1);
+        service.recordSuccess(user);
+        service.flush();
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE tbl_user SET failed_attempts = 0"), anyList());
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE tbl_user SET failed_attempts = ?,"), anyList());
+    }
+
+    private LoginAttemptService newService(long lockDuration, long decay) {
+        return new LoginAttemptService(jdbcTemplate, userCacheService, invalidationBusService, new SimpleMeterRegistry(),
+                true, MAX_FAILURES, lockDuration, decay, 1000);
+    }
+
+    // Mirrors a failed login: the provider loads the user through the cache, then the failure is recorded
+    private void failLogin(LoginAttemptService service, String username, int times) {
+        for (int i = 0; i < times; i++) {
+            userCacheService.findByUsername(username);
+            service.recordFailure(username);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package pe.bbg.music.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pe.bbg.music.auth.exception.TooManyRequestsException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class LoginRateLimiterServiceTest {
+
+    private static final String IP = "10.0.0.1";
+
+    @Test
+    void rejectsOnceTheUsernameBucketIsEmpty() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoginRateLimiterService service = newService(meterRegistry, 3, 1, 100, 100);
+
+        for (int i = 0; i < 3; i++) {
+            service.checkLogin("admin", IP);
+        }
+        TooManyRequestsException rejected = catchThrowableOfType(TooManyRequestsException.class,
+                () -> service.checkLogin("admin", IP));
+
+        // One token per minute: the next one is about 60 seconds away
+        assertThat(rejected.getRetryAfterSeconds()).isBetween(55L, 60L);
+        assertThat(meterRegistry.get("auth.login.rate-limited").tag("key", "username").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void usernameBucketIsSharedByEverySpellingButNotByOtherUsers() {
+        LoginRateLimiterService service = newService(new SimpleMeterRegistry(), 2, 1, 100, 100);
+
+        service.checkLogin("admin", IP);
+        service.checkLogin("ADMIN", IP);
+
+        assertThat(catchThrowableOfType(TooManyRequestsException.class, () -> service.checkLogin("Admin", IP)))
+                .isNotNull();
+        assertThatCode(() -> service.checkLogin("other", IP)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void ipBucketHoldsWhenUsernamesAreCycled() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoginRateLimiterService service = newService(meterRegistry, 100, 100, 3, 1);
+
+        for (int i = 0; i < 3; i++) {
+            service.checkLogin("user" + i, IP);
+        }
+
+        assertThat(catchThrowableOfType(TooManyRequestsException.class, () -> service.checkLogin("user3", IP)))
+                .isNotNull();
+        assertThatCode(() -> service.checkLogin("user3", "10.0.0.2")).doesNotThrowAnyException();
+        assertThat(meterRegistry.get("auth.login.rate-limited").tag("key", "ip").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void bucketRefillsOverTime() throws InterruptedException {
+        // 6000 per minute is one token every 10 ms
+        LoginRateLimiterService service = newService(new SimpleMeterRegistry(), 1, 6000, 100, 100);
+
+        service.checkLogin("admin", IP);
+        assertThat(catchThrowableOfType(TooManyRequestsException.class, () -> service.checkLogin("admin", IP)))
+                .isNotNull();
+
+        Thread.sleep(50);
+        assertThatCode(() -> service.checkLogin("admin", IP)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void disabledLimiterNeverRejects() {
+        LoginRateLimiterService service = new LoginRateLimiterService(new SimpleMeterRegistry(), false,
+                1, 1, 1, 1, 4, 100);
+
+        for (int i = 0; i < 10; i++) {
+            service.checkLogin("admin", IP);
+        }
+    }
+
+    private static LoginRateLimiterService newService(SimpleMeterRegistry meterRegistry, int usernameCapacity,
+                                                      int usernameRefillPerMinute, int ipCapacity, int ipRefillPerMinute) {
+        return new LoginRateLimiterService(meterRegistry, true, usernameCapacity, usernameRefillPerMinute,
+                ipCapacity, ipRefillPerMinute, 4, 100);
+    }
+}
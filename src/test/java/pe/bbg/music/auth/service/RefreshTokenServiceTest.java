@@ -0,0 +1,157 @@
+package pe.bbg.music.auth.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.entity.RefreshTokenEntity;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.repository.RefreshTokenRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private final UserPrincipalResponse user = user();
+
+    // Stands in for tbl_refresh_token, keyed by token hash
+    private final Map<String, RefreshTokenEntity> tokens = new ConcurrentHashMap<>();
+
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+        when(repository.save(any(RefreshTokenEntity.class))).thenAnswer(invocation -> {
+            RefreshTokenEntity token = invocation.getArgument(0);
+            token.setId(UUID.randomUUID());
+            tokens.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(repository.findByTokenHash(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(tokens.get(invocation.<String>getArgument(0))));
+        when(repository.markUsed(any(UUID.class), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            RefreshTokenEntity token = byId(invocation.getArgument(0));
+            if (token.getUsedAt() != null || token.getRevokedAt() != null) {
+                return 0;
+            }
+            token.setUsedAt(invocation.getArgument(1));
+            return 1;
+        });
+        when(repository.revokeFamily(any(UUID.class), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            List<RefreshTokenEntity> family = tokens.values().stream()
+                    .filter(token -> token.getFamilyId().equals(invocation.getArgument(0)) && token.getRevokedAt() == null)
+                    .toList();
+            family.forEach(token -> token.setRevokedAt(invocation.getArgument(1)));
+            return family.size();
+        });
+
+        // The refresh token is its jti here, so claims can be built straight from it
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateRefreshToken(any(), anyString())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        service = new RefreshTokenService(repository, jwtService);
+        ReflectionTestUtils.setField(service, "refreshExpiration", 604800000L);
+        ReflectionTestUtils.setField(service, "purgeBatchSize", 1000);
+    }
+
+    @Test
+    void issueStoresOnlyTheHashOfTheTokenId() {
+        String token = service.issue(user);
+
+        assertThat(tokens).hasSize(1);
+        RefreshTokenEntity stored = tokens.values().iterator().next();
+        assertThat(stored.getTokenHash()).hasSize(64).isNotEqualTo(token);
+        assertThat(stored.getUserId()).isEqualTo(user.id());
+    }
+
+    @Test
+    void rotateIssuesANewTokenInTheSameFamily() {
+        String first = service.issue(user);
+
+        String second = service.rotate(claims(first), user);
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(tokens.values()).extracting(RefreshTokenEntity::getFamilyId).containsOnly(familyOf(first));
+        assertThat(entityOf(first).getUsedAt()).isNotNull();
+        assertThat(entityOf(second).getUsedAt()).isNull();
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() {
+        String first = service.issue(user);
+        String second = service.rotate(claims(first), user);
+        String unrelated = service.issue(user);
+
+        assertThatThrownBy(() -> service.rotate(claims(first), user))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("already been used");
+
+        assertThat(entityOf(first).getRevokedAt()).isNotNull();
+        assertThat(entityOf(second).getRevokedAt()).isNotNull();
+        assertThat(entityOf(unrelated).getRevokedAt()).isNull();
+        // The legitimate holder of the newest token is logged out as well
+        assertThatThrownBy(() -> service.rotate(claims(second), user)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rotateRejectsUnknownTokensAndTokensOfAnotherUser() {
+        String token = service.issue(user);
+
+        assertThatThrownBy(() -> service.rotate(claims(UUID.randomUUID().toString()), user))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid refresh token");
+        assertThatThrownBy(() -> service.rotate(claims(token), user()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid refresh token");
+        assertThatThrownBy(() -> service.rotate(TokenClaimsResponse.builder().build(), user))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(entityOf(token).getUsedAt()).isNull();
+    }
+
+    @Test
+    void revokeEndsTheFamilyOfTheGivenToken() {
+        String first = service.issue(user);
+        String second = service.rotate(claims(first), user);
+
+        service.revoke(claims(second));
+
+        assertThat(tokens.values()).allSatisfy(token -> assertThat(token.getRevokedAt()).isNotNull());
+    }
+
+    private RefreshTokenEntity byId(UUID id) {
+        return tokens.values().stream().filter(token -> token.getId().equals(id)).findFirst().orElseThrow();
+    }
+
+    private RefreshTokenEntity entityOf(String token) {
+        String hash = ReflectionTestUtils.invokeMethod(RefreshTokenService.class, "hash", token);
+        return tokens.get(hash);
+    }
+
+    private UUID familyOf(String token) {
+        return entityOf(token).getFamilyId();
+    }
+
+    private static TokenClaimsResponse claims(String tokenId) {
+        return TokenClaimsResponse.builder().tokenId(tokenId).build();
+    }
+
+    private static UserPrincipalResponse user() {
+        return new UserPrincipalResponse(UUID.randomUUID(), "listener", "{noop}secret", "listener@bbg.pe",
+                UserRoleEnum.USER, null, "PE", SubscriptionTierEnum.FREE, 0, null);
+    }
+}
@@ -0,0 +1,40 @@
+package pe.bbg.music.auth.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyServiceTest {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    @Test
+    void asymmetricAlgorithmWithoutKeyPairFailsStartup() {
+        assertThatThrownBy(() -> signingKeyService(SigningKeyService.ES256, false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.private-key");
+        assertThatThrownBy(() -> signingKeyService(SigningKeyService.EDDSA, false))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void ephemeralKeysAreOnlyGeneratedWhenEnabled() {
+        SigningKeyService service = signingKeyService(SigningKeyService.ES256, true);
+
+        assertThat(service.getActiveKey().getAlgorithm()).isEqualTo(SigningKeyService.ES256);
+        assertThat(service.getActiveKey().getSigningKey()).isNotNull();
+    }
+
+    @Test
+    void hmacNeedsNoKeyPair() {
+        assertThat(signingKeyService(SigningKeyService.HS256, false).getActiveKey().getAlgorithm())
+                .isEqualTo(SigningKeyService.HS256);
+    }
+
+    private static SigningKeyService signingKeyService(String algorithm, boolean ephemeralKeysEnabled) {
+        return new SigningKeyService(algorithm, SECRET, "", "", "", "", "", List.of(), List.of(), "", ephemeralKeysEnabled);
+    }
+}
@@ -0,0 +1,189 @@
+package pe.bbg.music.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.TokenClaimsResponse;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final long ACCESS_TOKEN_LIFETIME = 900000;
+
+    private JdbcTemplate jdbcTemplate;
+    private InvalidationBusService invalidationBusService;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        invalidationBusService = mock(InvalidationBusService.class);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT (extract(epoch"), eq(Long.class)))
+                .thenAnswer(invocation -> System.currentTimeMillis());
+        // Tiny filter so false positives are frequent and the exact maps must still decide
+        service = new TokenRevocationService(jdbcTemplate, invalidationBusService, new SimpleMeterRegistry(),
+                ACCESS_TOKEN_LIFETIME, 1);
+    }
+
+    @Test
+    void revokedTokenIdIsDeniedAndOthersAreNot() {
+        service.revokeToken("jti-1", Instant.now().plusSeconds(60));
+
+        assertThat(service.isRevoked(token("jti-1"))).isTrue();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(service.isRevoked(token("jti-other-" + i))).isFalse();
+        }
+    }
+
+    @Test
+    void alreadyExpiredTokensAreNotRecorded() {
+        service.revokeToken("jti-1", Instant.now().minusSeconds(1));
+
+        assertThat(service.isRevoked(token("jti-1"))).isFalse();
+    }
+
+    @Test
+    void userCutoffRevokesOnlyTokensIssuedStrictlyBeforeIt() {
+        UUID userId = UUID.randomUUID();
+        Instant cutoff = Instant.ofEpochMilli(System.currentTimeMillis());
+
+        service.revokeUserTokensIssuedBefore(userId, cutoff);
+
+        assertThat(service.isRevoked(userToken(userId, cutoff.minusMillis(1)))).isTrue();
+        // Issued in the same millisecond as the change, e.g. the login right after a password reset
+        assertThat(service.isRevoked(userToken(userId, cutoff))).isFalse();
+        assertThat(service.isRevoked(userToken(userId, cutoff.plusMillis(1)))).isFalse();
+        assertThat(service.isRevoked(userToken(UUID.randomUUID(), cutoff.minusSeconds(1)))).isFalse();
+    }
+
+    @Test
+    void userCutoffOnlyMovesForward() {
+        UUID userId = UUID.randomUUID();
+        Instant cutoff = Instant.ofEpochMilli(System.currentTimeMillis());
+
+        service.revokeUserTokensIssuedBefore(userId, cutoff);
+        service.revokeUserTokensIssuedBefore(userId, cutoff.minusSeconds(10));
+
+        assertThat(service.isRevoked(userToken(userId, cutoff.minusSeconds(1)))).isTrue();
+    }
+
+    @Test
+    void revokePersistsBeforePublishing() {
+        UUID userId = UUID.randomUUID();
+        Instant cutoff = Instant.ofEpochMilli(System.currentTimeMillis());
+        InvalidationEventRequest event = InvalidationEventRequest.userTokensRevoked(Set.of(userId), cutoff);
+
+        service.revoke(event);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        InOrder order = inOrder(jdbcTemplate, invalidationBusService);
+        order.verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO tbl_token_revocation"), rows.capture());
+        order.verify(invalidationBusService).publish(event);
+        assertThat(rows.getValue()).singleElement().satisfies(row -> assertThat(row)
+                .containsExactly("u", userId.toString(), cutoff.toEpochMilli(), cutoff.toEpochMilli() + ACCESS_TOKEN_LIFETIME));
+    }
+
+    @Test
+    void revokeRejectsOtherEventTypes() {
+        assertThatThrownBy(() -> service.revoke(InvalidationEventRequest.userChanged(Set.of(UUID.randomUUID()))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void busEventsAreAppliedLocally() {
+        UUID userId = UUID.randomUUID();
+        Instant cutoff = Instant.ofEpochMilli(System.currentTimeMillis());
+
+        service.onInvalidation(InvalidationEventRequest.tokenRevoked("jti-1", Instant.now().plusSeconds(60)));
+        service.onInvalidation(InvalidationEventRequest.userTokensRevoked(Set.of(userId), cutoff));
+
+        assertThat(service.isRevoked(token("jti-1"))).isTrue();
+        assertThat(service.isRevoked(userToken(userId, cutoff.minusMillis(1)))).isTrue();
+    }
+
+    @Test
+    void pruneDropsExpiredEntriesAndKeepsTheRest() throws InterruptedException {
+        UUID staleUser = UUID.randomUUID();
+        service.revokeToken("short-lived", Instant.now().plusMillis(50));
+        service.revokeToken("long-lived", Instant.now().plusSeconds(60));
+        service.revokeUserTokensIssuedBefore(staleUser, Instant.now().minusMillis(ACCESS_TOKEN_LIFETIME + 1000));
+        Thread.sleep(100);
+
+        service.pruneExpired();
+
+        verify(jdbcTemplate).update(startsWith("DELETE FROM tbl_token_revocation"), anyLong());
+        assertThat(service.isRevoked(token("short-lived"))).isFalse();
+        assertThat(service.isRevoked(userToken(staleUser, Instant.now().minusMillis(ACCESS_TOKEN_LIFETIME + 2000)))).isFalse();
+        // The rebuilt filter still holds what remains
+        assertThat(service.isRevoked(token("long-lived"))).isTrue();
+    }
+
+    @Test
+    void syncLoadsStoredRevocationsAndThenReadsOnlyRecentRows() throws SQLException {
+        UUID userId = UUID.randomUUID();
+        long cutoff = System.currentTimeMillis();
+        ResultSet tokenRow = row("j", "jti-1", System.currentTimeMillis() + 60000);
+        ResultSet userRow = row("u", userId.toString(), cutoff);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(tokenRow);
+            handler.processRow(userRow);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT kind"), any(RowCallbackHandler.class), any(), any());
+
+        service.loadFromStore();
+
+        assertThat(service.isRevoked(token("jti-1"))).isTrue();
+        assertThat(service.isRevoked(userToken(userId, Instant.ofEpochMilli(cutoff - 1)))).isTrue();
+
+        service.syncFromStore();
+
+        ArgumentCaptor<Object> since = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, times(2))
+                .query(startsWith("SELECT kind"), any(RowCallbackHandler.class), since.capture(), any());
+        assertThat(since.getAllValues().getFirst()).isEqualTo(0L);
+        // Later polls only re-read rows changed since the previous one, minus a small overlap
+        assertThat((Long) since.getAllValues().getLast()).isPositive().isLessThan(System.currentTimeMillis());
+    }
+
+    private static ResultSet row(String kind, String key, long atMillis) throws SQLException {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("kind")).thenReturn(kind);
+        when(row.getString("revoked_key")).thenReturn(key);
+        when(row.getLong("at_millis")).thenReturn(atMillis);
+        return row;
+    }
+
+    private static TokenClaimsResponse token(String tokenId) {
+        return TokenClaimsResponse.builder().tokenId(tokenId).issuedAt(Instant.now()).build();
+    }
+
+    private static TokenClaimsResponse userToken(UUID userId, Instant issuedAt) {
+        return TokenClaimsResponse.builder().tokenId(UUID.randomUUID().toString()).userId(userId).issuedAt(issuedAt).build();
+    }
+}
@@ -0,0 +1,155 @@
+package pe.bbg.music.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.bbg.music.auth.dto.BulkItemResultResponse;
+import pe.bbg.music.auth.dto.BulkUserChangeResponse;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.enums.BulkItemStatusEnum;
+import pe.bbg.music.auth.dto.enums.InvalidationTypeEnum;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserBulkServiceTest {
+
+    private static final int CHUNK_SIZE = 2;
+
+    private final List<UUID> users = IntStream.range(0, 5).mapToObj(i -> UUID.randomUUID()).toList();
+    // Ids the UPDATE does not match
+    private final Set<UUID> missing = new HashSet<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    private JdbcTemplate jdbcTemplate;
+    private InvalidationBusService invalidationBusService;
+    private TokenRevocationService tokenRevocationService;
+    private UserBulkService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            batchSizes.add(rows.size());
+            return rows.stream().mapToInt(row -> missing.contains((UUID) row[4]) ? 0 : 1).toArray();
+        });
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        invalidationBusService = mock(InvalidationBusService.class);
+        tokenRevocationService = mock(TokenRevocationService.class);
+        service = new UserBulkService(new ObjectMapper(), jdbcTemplate, transactionTemplate, invalidationBusService,
+                tokenRevocationService, () -> Optional.of("admin"), CHUNK_SIZE);
+    }
+
+    @Test
+    void jsonArrayIsAppliedInChunks() throws IOException {
+        String body = users.stream().map(this::tierChange).collect(Collectors.joining(",", "[", "]"));
+
+        BulkUserChangeResponse response = apply(body);
+
+        assertThat(response.getTotal()).isEqualTo(5);
+        assertThat(response.getUpdated()).isEqualTo(5);
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+        assertThat(response.getResults()).extracting(BulkItemResultResponse::getUserId).containsExactlyElementsOf(users);
+        // One cache invalidation and one token revocation per chunk, never per item
+        verify(invalidationBusService, times(3)).publish(any(InvalidationEventRequest.class));
+        verify(tokenRevocationService, times(3)).revoke(any(InvalidationEventRequest.class));
+    }
+
+    @Test
+    void ndjsonIsReadTheSameWay() throws IOException {
+        String body = users.stream().map(this::tierChange).collect(Collectors.joining("\n"));
+
+        BulkUserChangeResponse response = apply(body);
+
+        assertThat(response.getUpdated()).isEqualTo(5);
+        assertThat(batchSizes).containsExactly(2, 2, 1);
+    }
+
+    @Test
+    void invalidItemsAreReportedWithoutStoppingTheStream() throws IOException {
+        String body = String.join("\n",
+                tierChange(users.get(0)),
+                "{\"userId\":\"" + users.get(1) + "\"}",
+                "{\"userId\":\"" + users.get(2) + "\",\"newRole\":\"ROOT\"}",
+                "{\"userId\":\"" + users.get(3) + "\",\"newRole\":\"ADMIN\"}");
+
+        BulkUserChangeResponse response = apply(body);
+
+        assertThat(response.getTotal()).isEqualTo(4);
+        assertThat(response.getUpdated()).isEqualTo(2);
+        assertThat(response.getInvalid()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(BulkItemResultResponse::getIndex, BulkItemResultResponse::getStatus)
+                .containsExactly(
+                        tuple(0, BulkItemStatusEnum.UPDATED),
+                        tuple(1, BulkItemStatusEnum.INVALID),
+                        tuple(2, BulkItemStatusEnum.INVALID),
+                        tuple(3, BulkItemStatusEnum.UPDATED));
+    }
+
+    @Test
+    void unmatchedIdsAreNotFoundAndNotInvalidated() throws IOException {
+        missing.add(users.get(1));
+
+        BulkUserChangeResponse response = apply(tierChange(users.get(0)) + "\n" + tierChange(users.get(1)));
+
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getNotFound()).isEqualTo(1);
+        ArgumentCaptor<InvalidationEventRequest> event = ArgumentCaptor.forClass(InvalidationEventRequest.class);
+        verify(invalidationBusService).publish(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(InvalidationTypeEnum.USER_CHANGED);
+        assertThat(event.getValue().getKeys()).containsExactly(users.get(0).toString());
+    }
+
+    @Test
+    void malformedInputKeepsWhatWasReadBefore() throws IOException {
+        BulkUserChangeResponse response = apply("[" + tierChange(users.get(0)) + ", {\"userId\": ");
+
+        assertThat(response.getUpdated()).isEqualTo(1);
+        assertThat(response.getInvalid()).isEqualTo(1);
+        assertThat(response.getResults().getLast().getReason()).startsWith("Malformed input");
+    }
+
+    @Test
+    void emptyBodyWritesNothing() throws IOException {
+        BulkUserChangeResponse response = apply("[]");
+
+        assertThat(response.getTotal()).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(invalidationBusService, never()).publish(any());
+    }
+
+    private BulkUserChangeResponse apply(String body) throws IOException {
+        return service.applyChanges(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String tierChange(UUID userId) {
+        return "{\"userId\":\"" + userId + "\",\"newTier\":\"PREMIUM\"}";
+    }
+}
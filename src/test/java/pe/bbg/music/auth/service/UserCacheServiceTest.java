@@ -0,0 +1,129 @@
+package pe.bbg.music.auth.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pe.bbg.music.auth.dto.InvalidationEventRequest;
+import pe.bbg.music.auth.dto.UserPrincipalResponse;
+import pe.bbg.music.auth.entity.enums.SubscriptionTierEnum;
+import pe.bbg.music.auth.entity.enums.UserRoleEnum;
+import pe.bbg.music.auth.repository.UserRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCacheServiceTest {
+
+    private final UserPrincipalResponse user = user("Admin");
+
+    private UserRepository repository;
+    private UserCacheService userCacheService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserRepository.class);
+        when(repository.findPrincipalByUsername(anyString())).thenReturn(Optional.of(user));
+        userCacheService = new UserCacheService(repository, new SimpleMeterRegistry(), 100, 300000);
+    }
+
+    @Test
+    void spellingsOfAUsernameShareOneEntry() {
+        userCacheService.findByUsername("admin");
+        userCacheService.findByUsername("ADMIN");
+
+        verify(repository, times(1)).findPrincipalByUsername(anyString());
+        assertThat(userCacheService.findCachedByUsername("aDmIn")).contains(user);
+    }
+
+    @Test
+    void userChangedEvictsTheUsernameEntryById() {
+        userCacheService.findByUsername("admin");
+
+        userCacheService.onInvalidation(InvalidationEventRequest.userChanged(Set.of(user.id())));
+
+        assertThat(userCacheService.findCachedByUsername("admin")).isEmpty();
+        userCacheService.findByUsername("admin");
+        verify(repository, times(2)).findPrincipalByUsername(anyString());
+    }
+
+    @Test
+    void evictingOneUserKeepsTheOthers() {
+        UserPrincipalResponse other = user("other");
+        userCacheService.put(user);
+        userCacheService.put(other);
+
+        userCacheService.evictByIds(Set.of(user.id()));
+
+        assertThat(userCacheService.findCachedByUsername("admin")).isEmpty();
+        assertThat(userCacheService.findCachedByUsername("other")).contains(other);
+    }
+
+    @Test
+    void renamedUserDropsThePreviousUsernameEntry() {
+        userCacheService.put(user);
+        UserPrincipalResponse renamed = new UserPrincipalResponse(user.id(), "root", user.password(),
+                user.email(), user.role(), user.avatarUrl(), user.country(), user.subscriptionTier(), 0, null);
+
+        userCacheService.put(renamed);
+
+        assertThat(userCacheService.findCachedByUsername("admin")).isEmpty();
+        userCacheService.evictByIds(Set.of(user.id()));
+        assertThat(userCacheService.findCachedByUsername("root")).isEmpty();
+    }
+
+    @Test
+    void bulkLookupIndexesLoadedUsersForEviction() {
+        when(repository.findAllPrincipalsByUsernameIn(List.of("admin"))).thenReturn(List.of(user));
+
+        assertThat(userCacheService.findAllByUsername(List.of("ADMIN"))).containsEntry("ADMIN", user);
+
+        userCacheService.evictByIds(Set.of(user.id()));
+        assertThat(userCacheService.findCachedByUsername("admin")).isEmpty();
+    }
+
+    @Test
+    void loadOverlappingAnEvictionIsNotCached() {
+        // The user is updated and evicted while the row read before the update is still in flight
+        when(repository.findPrincipalByUsername(anyString())).thenAnswer(invocation -> {
+            userCacheService.evictByIds(Set.of(user.id()));
+            return Optional.of(user);
+        });
+        when(repository.findPrincipalById(user.id())).thenAnswer(invocation -> {
+            userCacheService.evictAll();
+            return Optional.of(user);
+        });
+
+        assertThat(userCacheService.findByUsername("admin")).contains(user);
+        assertThat(userCacheService.findById(user.id())).contains(user);
+
+        assertThat(userCacheService.findCachedByUsername("admin")).isEmpty();
+        userCacheService.findById(user.id());
+        verify(repository, times(2)).findPrincipalById(user.id());
+    }
+
+    @Test
+    void bulkLoadOverlappingAnEvictionIsNotCached() {
+        when(repository.findAllPrincipalsByUsernameIn(List.of("admin"))).thenAnswer(invocation -> {
+            userCacheService.evictByIds(Set.of(user.id()));
+            return List.of(user);
+        });
+
+        assertThat(userCacheService.findAllByUsername(List.of("admin"))).containsEntry("admin", user);
+
+        assertThat(userCacheService.findCachedByUsername("admin")).isEmpty();
+    }
+
+    private static UserPrincipalResponse user(String username) {
+        return new UserPrincipalResponse(UUID.randomUUID(), username, "{noop}secret", username + "@bbg.pe",
+                UserRoleEnum.ADMIN, null, "PE", SubscriptionTierEnum.PREMIUM, 0, null);
+    }
+}
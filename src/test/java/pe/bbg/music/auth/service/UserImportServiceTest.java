@@ -0,0 +1,205 @@
+package pe.bbg.music.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import pe.bbg.music.auth.dto.UserImportResponse;
+import pe.bbg.music.auth.entity.UserImportEntity;
+import pe.bbg.music.auth.entity.enums.UserImportStatusEnum;
+import pe.bbg.music.auth.repository.UserImportRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private static final int CHUNK_SIZE = 2;
+    private static final String BCRYPT = "$2a$10$abcdefghijklmnopqrstuuZ5q0cQ5bKg4v0yWvN1S6vQb0FhtZ0bK";
+
+    // Stands in for the tbl_user_import row of the current import
+    private final UserImportEntity job = UserImportEntity.builder().status(UserImportStatusEnum.RUNNING).build();
+    // Every row sent to the INSERT, and the size of each batch
+    private final List<Object[]> insertedRows = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    private UserImportRepository repository;
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO tbl_user"), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            insertedRows.addAll(rows);
+            batchSizes.add(rows.size());
+            return new int[rows.size()];
+        });
+        // No conflicts: every row of the last batch was inserted
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(ResultSetExtractor.class)))
+                .thenAnswer(invocation -> (long) batchSizes.getLast());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        repository = mock(UserImportRepository.class);
+        when(repository.save(any(UserImportEntity.class))).thenAnswer(invocation -> {
+            job.setId(UUID.randomUUID());
+            return job;
+        });
+        when(repository.findById(any(UUID.class))).thenAnswer(invocation ->
+                Optional.ofNullable(invocation.getArgument(0).equals(job.getId()) ? job : null));
+        when(repository.addProgress(any(UUID.class), anyLong(), anyLong(), anyLong(), anyLong(), any(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    job.setProcessed(job.getProcessed() + invocation.<Long>getArgument(1));
+                    job.setImported(job.getImported() + invocation.<Long>getArgument(2));
+                    job.setSkipped(job.getSkipped() + invocation.<Long>getArgument(3));
+                    job.setFailed(job.getFailed() + invocation.<Long>getArgument(4));
+                    if (invocation.getArgument(5) != null) {
+                        job.setLastError(invocation.getArgument(5));
+                    }
+                    return 1;
+                });
+        when(repository.finish(any(UUID.class), any(UserImportStatusEnum.class), any(), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    job.setStatus(invocation.getArgument(1));
+                    return 1;
+                });
+
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(any())).thenAnswer(invocation -> "{noop}" + invocation.getArgument(0));
+
+        service = new UserImportService(new ObjectMapper(), jdbcTemplate, transactionTemplate, repository,
+                passwordEncoder, () -> Optional.of("admin"), CHUNK_SIZE, 2, 60000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void ndjsonIsImportedInChunksWithPasswordsHashed() throws IOException {
+        UserImportResponse response = importNdjson(
+                "{\"username\":\"ana\",\"password\":\"secret1\"}",
+                "{\"username\":\"ben\",\"password\":\"secret2\",\"role\":\"ADMIN\"}",
+                "{\"username\":\"cid\",\"passwordHash\":\"" + BCRYPT + "\"}");
+
+        assertThat(response.getStatus()).isEqualTo(UserImportStatusEnum.COMPLETED);
+        assertThat(response.getProcessed()).isEqualTo(3);
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(batchSizes).containsExactly(2, 1);
+        assertThat(insertedRows).extracting(row -> row[1]).containsExactly("ana", "ben", "cid");
+        assertThat(insertedRows).extracting(row -> row[2]).containsExactly("{noop}secret1", "{noop}secret2", BCRYPT);
+        assertThat(insertedRows).extracting(row -> row[4]).containsExactly("USER", "ADMIN", "USER");
+    }
+
+    @Test
+    void csvHonoursTheHeaderAndQuotedFields() throws IOException {
+        String csv = String.join("\n",
+                "username,email,password,country",
+                "ana,ana@bbg.pe,\"pa,ss\"\"word\",PE",
+                "",
+                "ben,,secret,");
+
+        UserImportResponse response = service.importUsers(stream(csv), true, null);
+
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(insertedRows).extracting(row -> row[1]).containsExactly("ana", "ben");
+        assertThat(insertedRows.getFirst()[2]).isEqualTo("{noop}pa,ss\"word");
+    }
+
+    @Test
+    void invalidRecordsAreCountedAsFailedAndTheRestIsImported() throws IOException {
+        UserImportResponse response = importNdjson(
+                "{\"username\":\"ana\",\"password\":\"secret\"}",
+                "{\"username\":\"ben\"}",
+                "{\"username\":\"cid\",\"passwordHash\":\"md5:0123\"}",
+                "{\"username\":\"dan\",\"password\":\"secret\",\"role\":\"ROOT\"}",
+                "{\"password\":\"secret\"}");
+
+        assertThat(response.getStatus()).isEqualTo(UserImportStatusEnum.COMPLETED);
+        assertThat(response.getProcessed()).isEqualTo(5);
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(4);
+        assertThat(response.getLastError()).startsWith("Record 4:");
+        assertThat(insertedRows).extracting(row -> row[1]).containsExactly("ana");
+    }
+
+    @Test
+    void resumeSkipsTheRecordsAlreadyCommitted() throws IOException {
+        job.setId(UUID.randomUUID());
+        job.setStatus(UserImportStatusEnum.FAILED);
+        job.setProcessed(2);
+        job.setImported(2);
+        when(repository.claim(eq(job.getId()), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(1);
+
+        UserImportResponse response = service.importUsers(stream(String.join("\n",
+                "{\"username\":\"ana\",\"password\":\"secret\"}",
+                "{\"username\":\"ben\",\"password\":\"secret\"}",
+                "{\"username\":\"cid\",\"password\":\"secret\"}")), false, job.getId());
+
+        assertThat(response.getStatus()).isEqualTo(UserImportStatusEnum.COMPLETED);
+        assertThat(response.getProcessed()).isEqualTo(3);
+        assertThat(response.getImported()).isEqualTo(3);
+        assertThat(insertedRows).extracting(row -> row[1]).containsExactly("cid");
+    }
+
+    @Test
+    void resumeIsRefusedWhileAnotherRunHoldsTheImport() {
+        UUID importId = UUID.randomUUID();
+        when(repository.claim(eq(importId), any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThatThrownBy(() -> service.importUsers(stream("{}"), false, importId))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("still running");
+    }
+
+    @Test
+    void malformedInputFailsTheImportAndKeepsCommittedProgress() {
+        assertThatThrownBy(() -> importNdjson(
+                "{\"username\":\"ana\",\"password\":\"secret\"}",
+                "{\"username\":\"ben\",\"password\":\"secret\"}",
+                "{\"username\": "))
+                .isInstanceOf(IOException.class);
+
+        assertThat(job.getStatus()).isEqualTo(UserImportStatusEnum.FAILED);
+        assertThat(job.getProcessed()).isEqualTo(2);
+    }
+
+    private UserImportResponse importNdjson(String... lines) throws IOException {
+        return service.importUsers(stream(String.join("\n", lines)), false, null);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}